@@ -0,0 +1,48 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import es.eoi.springboot.jdbc.h2.example.SpringBootJdbcWithH2Application;
+
+/**
+ * Arranca la aplicación sin servidor web sobre una H2 en memoria creada con
+ * schema.sql y data.sql, para usarla desde los benchmarks JMH.
+ */
+final class BenchmarkContext {
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * Las propiedades se pasan como argumentos de línea de comandos para que
+	 * tengan prioridad sobre application.properties.
+	 */
+	static ConfigurableApplicationContext start(String... properties) {
+		List<String> args = new ArrayList<>();
+		args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+		args.add("--spring.devtools.restart.enabled=false");
+		args.add("--logging.level.root=warn");
+		// devtools intenta cerrar otra vez la H2 al parar el contexto
+		args.add("--logging.level.org.springframework.beans.factory.support.DisposableBeanAdapter=error");
+		for (String property : properties) {
+			args.add("--" + property);
+		}
+		return new SpringApplicationBuilder(SpringBootJdbcWithH2Application.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run(args.toArray(new String[0]));
+	}
+
+	static void deleteFrom(ConfigurableApplicationContext context, long firstId) {
+		context.getBean(JdbcTemplate.class).update("delete from student where id >= ?", firstId);
+	}
+
+}
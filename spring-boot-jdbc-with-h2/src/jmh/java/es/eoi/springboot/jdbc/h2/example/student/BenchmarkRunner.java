@@ -0,0 +1,47 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lanza JMH con los argumentos habituales de línea de comandos y guarda los
+ * resultados en JSON dentro de {@code jmh.resultDir}.
+ * <p>
+ * Si se indica {@code -Djmh.threads=1,4,8} se repite la ejecución con cada
+ * número de hilos y se genera un fichero por ejecución
+ * ({@code jmh-result-t4.json}...), de forma que se puedan comparar versiones
+ * con el mismo número de hilos.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		File resultDir = new File(System.getProperty("jmh.resultDir", "target"));
+		String threads = System.getProperty("jmh.threads", "").trim();
+		if (threads.isEmpty()) {
+			new Runner(options(commandLine, new File(resultDir, "jmh-result.json")).build()).run();
+			return;
+		}
+		for (String count : threads.split(",")) {
+			int threadCount = Integer.parseInt(count.trim());
+			File result = new File(resultDir, "jmh-result-t" + threadCount + ".json");
+			new Runner(options(commandLine, result).threads(threadCount).build()).run();
+		}
+	}
+
+	private static ChainedOptionsBuilder options(CommandLineOptions commandLine, File result) {
+		return new OptionsBuilder()
+				.parent(commandLine)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.getPath());
+	}
+
+}
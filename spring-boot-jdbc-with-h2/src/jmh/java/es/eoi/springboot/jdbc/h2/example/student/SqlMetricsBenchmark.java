@@ -0,0 +1,80 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Coste de medir cada sentencia con
+ * {@link es.eoi.springboot.jdbc.h2.example.jdbc.InstrumentedDataSource}:
+ * la misma consulta de {@code rows} filas y el mismo update por id con
+ * {@code student.jdbc.metrics.enabled} a {@code true} y a {@code false}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlMetricsBenchmark {
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	private static final String SQL = "select id, name, passport_number from student where id >= ? and id < ?";
+
+	@Param({ "true", "false" })
+	boolean metrics;
+
+	@Param({ "1", "1000" })
+	int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Object[] args;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start("student.jdbc.metrics.enabled=" + metrics);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Student> students = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+		context.getBean(StudentJdbcRepository.class).batchInsert(students);
+		args = new Object[] { FIRST_ID, FIRST_ID + rows };
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Student> query() {
+		return jdbcTemplate.query(SQL, args, StudentJdbcRepository.ROW_MAPPER);
+	}
+
+	@Benchmark
+	public int update() {
+		return jdbcTemplate.update("update student set name = ? where id = ?", "Student", FIRST_ID);
+	}
+
+}
@@ -0,0 +1,84 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compara la inserción fila a fila con {@link StudentJdbcRepository#batchInsert}.
+ * El resultado se expresa en microsegundos por fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StudentBatchBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	@Param({ "100", "500", "2000" })
+	int batchSize;
+
+	private ConfigurableApplicationContext context;
+
+	private StudentJdbcRepository repository;
+
+	private List<Student> students;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start("student.jdbc.batch-size=" + batchSize);
+		repository = context.getBean(StudentJdbcRepository.class);
+		students = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void clean() {
+		BenchmarkContext.deleteFrom(context, FIRST_ID);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int rowAtATime() {
+		int rows = 0;
+		for (Student student : students) {
+			rows += repository.insert(student);
+		}
+		return rows;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int[] batchInsert() {
+		return repository.batchInsert(students);
+	}
+
+}
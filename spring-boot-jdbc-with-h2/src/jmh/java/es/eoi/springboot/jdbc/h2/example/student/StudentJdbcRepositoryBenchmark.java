@@ -0,0 +1,121 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Operaciones de {@link StudentJdbcRepository} sobre una tabla con
+ * {@code tableSize} estudiantes. Con {@code cacheSize=0} findById va siempre a
+ * la base de datos.
+ * <p>
+ * Es seguro ejecutarlo con varios hilos ({@code -Djmh.threads=1,4,8}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentJdbcRepositoryBenchmark {
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	@Param({ "1000", "100000" })
+	int tableSize;
+
+	@Param({ "0", "10000" })
+	int cacheSize;
+
+	private ConfigurableApplicationContext context;
+
+	private StudentJdbcRepository repository;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private final AtomicLong nextId = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start("student.cache.maximum-size=" + cacheSize);
+		repository = context.getBean(StudentJdbcRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Student> students = new ArrayList<>(tableSize);
+		for (int i = 0; i < tableSize; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+		repository.batchInsert(students);
+		nextId.set(FIRST_ID + tableSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	/**
+	 * Fila nueva que cada hilo inserta antes de medir deleteById.
+	 */
+	@State(Scope.Thread)
+	public static class RowToDelete {
+
+		long id;
+
+		@Setup(Level.Invocation)
+		public void insert(StudentJdbcRepositoryBenchmark benchmark) {
+			id = benchmark.nextId.getAndIncrement();
+			benchmark.jdbcTemplate.update("insert into student values(?, ?, ?)", id, "To delete", "D" + id);
+		}
+
+	}
+
+	@Benchmark
+	public Student findById() {
+		return repository.findById(randomId());
+	}
+
+	@Benchmark
+	public List<Student> findAll() {
+		return repository.findAll();
+	}
+
+	@Benchmark
+	public int insert() {
+		long id = nextId.getAndIncrement();
+		return repository.insert(new Student(id, "Inserted " + id, "I" + id));
+	}
+
+	@Benchmark
+	public int update() {
+		long id = randomId();
+		return repository.update(new Student(id, "Updated " + id, "U" + id));
+	}
+
+	@Benchmark
+	public int deleteById(RowToDelete row) {
+		return repository.deleteById(row.id);
+	}
+
+	private long randomId() {
+		return FIRST_ID + ThreadLocalRandom.current().nextInt(tableSize);
+	}
+
+}
@@ -0,0 +1,78 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latencia de una página de 20 estudiantes según su posición, con OFFSET y con
+ * {@link StudentJdbcRepository#findPageAfter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentPaginationBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final int PAGES = 10_000;
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	@Param({ "1", "100", "1000", "10000" })
+	int page;
+
+	private ConfigurableApplicationContext context;
+
+	private StudentJdbcRepository repository;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start();
+		repository = context.getBean(StudentJdbcRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Student> students = new ArrayList<>(PAGE_SIZE * PAGES);
+		for (int i = 0; i < PAGE_SIZE * PAGES; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+		repository.batchInsert(students);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Student> offset() {
+		return jdbcTemplate.query("select * from student where id >= ? order by id limit ? offset ?",
+				new Object[] { FIRST_ID, PAGE_SIZE, (page - 1) * PAGE_SIZE }, StudentJdbcRepository.ROW_MAPPER);
+	}
+
+	@Benchmark
+	public List<Student> keyset() {
+		return repository.findPageAfter(FIRST_ID - 1 + (long) (page - 1) * PAGE_SIZE, PAGE_SIZE);
+	}
+
+}
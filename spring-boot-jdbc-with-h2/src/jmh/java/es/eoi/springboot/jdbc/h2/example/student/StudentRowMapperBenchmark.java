@@ -0,0 +1,99 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Compara BeanPropertyRowMapper, un RowMapper escrito a mano y
+ * {@link StudentJdbcRepository#ROW_MAPPER} leyendo {@code rows} filas de la
+ * tabla student.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentRowMapperBenchmark {
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	private static final String SQL = "select id, name, passport_number from student where id >= ? and id < ?";
+
+	@Param({ "1", "1000" })
+	int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Object[] args;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start();
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Student> students = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+		context.getBean(StudentJdbcRepository.class).batchInsert(students);
+		args = new Object[] { FIRST_ID, FIRST_ID + rows };
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Student> beanPropertyRowMapper() {
+		return jdbcTemplate.query(SQL, args, new BeanPropertyRowMapper<>(Student.class));
+	}
+
+	@Benchmark
+	public List<Student> handWrittenRowMapper() {
+		return jdbcTemplate.query(SQL, args, new HandWrittenRowMapper());
+	}
+
+	@Benchmark
+	public List<Student> columnIndexRowMapper() {
+		return jdbcTemplate.query(SQL, args, StudentJdbcRepository.ROW_MAPPER);
+	}
+
+	/**
+	 * El mapper que usaba findAll antes de ColumnIndexRowMapper.
+	 */
+	static class HandWrittenRowMapper implements RowMapper<Student> {
+		@Override
+		public Student mapRow(ResultSet rs, int rowNum) throws SQLException {
+			Student student = new Student();
+			student.setId(rs.getLong("id"));
+			student.setName(rs.getString("name"));
+			student.setPassportNumber(rs.getString("passport_number"));
+			return student;
+		}
+	}
+
+}
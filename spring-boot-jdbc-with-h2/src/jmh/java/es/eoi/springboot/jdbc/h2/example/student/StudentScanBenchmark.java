@@ -0,0 +1,85 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Recuento de pasaportes por prefijo sobre toda la tabla, secuencial con
+ * {@link StudentJdbcRepository#streamAll()} y en paralelo con
+ * {@link StudentRangeScanner} para distintos números de hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentScanBenchmark {
+
+	private static final int ROWS = 500_000;
+
+	private static final long FIRST_ID = 1_000_000L;
+
+	private static final Collector<Student, ?, Map<String, Long>> BY_PREFIX = Collectors
+			.groupingBy(student -> student.getPassportNumber().substring(0, 2), Collectors.counting());
+
+	@Param({ "1", "2", "4", "8" })
+	int parallelism;
+
+	private ConfigurableApplicationContext context;
+
+	private StudentJdbcRepository repository;
+
+	private StudentRangeScanner scanner;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = BenchmarkContext.start("student.scan.parallelism=" + parallelism,
+				"spring.datasource.hikari.maximum-pool-size=" + Math.max(10, parallelism + 2));
+		repository = context.getBean(StudentJdbcRepository.class);
+		scanner = context.getBean(StudentRangeScanner.class);
+		List<Student> students = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + (i % 90 + 10) + "-" + i));
+		}
+		repository.batchInsert(students);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public Map<String, Long> sequential() {
+		try (Stream<Student> students = repository.streamAll()) {
+			return students.collect(BY_PREFIX);
+		}
+	}
+
+	@Benchmark
+	public Map<String, Long> partitioned() {
+		return scanner.scan(BY_PREFIX);
+	}
+
+}
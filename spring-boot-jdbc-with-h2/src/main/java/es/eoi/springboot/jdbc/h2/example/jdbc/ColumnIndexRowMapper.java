@@ -0,0 +1,151 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * RowMapper que lee las columnas por posición y rellena el objeto mediante
+ * {@link MethodHandle}s resueltos una única vez.
+ * <p>
+ * A diferencia de {@link org.springframework.jdbc.core.BeanPropertyRowMapper},
+ * no inspecciona la clase ni los metadatos del ResultSet en cada consulta: la
+ * consulta debe seleccionar exactamente las columnas indicadas y en el mismo
+ * orden.
+ */
+public final class ColumnIndexRowMapper<T> implements RowMapper<T> {
+
+	private static final Map<String, ColumnIndexRowMapper<?>> CACHE = new ConcurrentHashMap<>();
+
+	private final MethodHandle constructor;
+
+	private final ColumnReader[] readers;
+
+	private final MethodHandle[] setters;
+
+	private ColumnIndexRowMapper(Class<T> type, String[] columns) {
+		Map<String, PropertyDescriptor> properties = properties(type);
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		try {
+			this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+			this.readers = new ColumnReader[columns.length];
+			this.setters = new MethodHandle[columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				String property = JdbcUtils.convertUnderscoreNameToPropertyName(columns[i]);
+				PropertyDescriptor descriptor = properties.get(property);
+				if (descriptor == null || descriptor.getWriteMethod() == null) {
+					throw new IllegalArgumentException(
+							"No writable property '" + property + "' for column '" + columns[i] + "' in " + type);
+				}
+				this.readers[i] = reader(descriptor.getPropertyType());
+				this.setters[i] = lookup.unreflect(descriptor.getWriteMethod())
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			}
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalArgumentException("Cannot build row mapper for " + type, ex);
+		}
+	}
+
+	/**
+	 * Devuelve el mapper de {@code type} para las columnas indicadas,
+	 * construyéndolo la primera vez que se pide.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> ColumnIndexRowMapper<T> of(Class<T> type, String... columns) {
+		String key = type.getName() + ':' + String.join(",", columns);
+		return (ColumnIndexRowMapper<T>) CACHE.computeIfAbsent(key, k -> new ColumnIndexRowMapper<>(type, columns));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+		try {
+			Object target = constructor.invokeExact();
+			for (int i = 0; i < readers.length; i++) {
+				setters[i].invokeExact(target, readers[i].read(rs, i + 1));
+			}
+			return (T) target;
+		} catch (SQLException | RuntimeException | Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static Map<String, PropertyDescriptor> properties(Class<?> type) {
+		try {
+			Map<String, PropertyDescriptor> properties = new HashMap<>();
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+				properties.put(descriptor.getName(), descriptor);
+			}
+			return properties;
+		} catch (IntrospectionException ex) {
+			throw new IllegalArgumentException("Cannot introspect " + type, ex);
+		}
+	}
+
+	private static ColumnReader reader(Class<?> type) {
+		if (type == String.class) {
+			return ResultSet::getString;
+		}
+		if (type == long.class) {
+			return ResultSet::getLong;
+		}
+		if (type == Long.class) {
+			return (rs, index) -> {
+				long value = rs.getLong(index);
+				return rs.wasNull() ? null : value;
+			};
+		}
+		if (type == int.class) {
+			return ResultSet::getInt;
+		}
+		if (type == Integer.class) {
+			return (rs, index) -> {
+				int value = rs.getInt(index);
+				return rs.wasNull() ? null : value;
+			};
+		}
+		if (type == double.class) {
+			return ResultSet::getDouble;
+		}
+		if (type == Double.class) {
+			return (rs, index) -> {
+				double value = rs.getDouble(index);
+				return rs.wasNull() ? null : value;
+			};
+		}
+		if (type == boolean.class) {
+			return ResultSet::getBoolean;
+		}
+		if (type == Boolean.class) {
+			return (rs, index) -> {
+				boolean value = rs.getBoolean(index);
+				return rs.wasNull() ? null : value;
+			};
+		}
+		if (type == BigDecimal.class) {
+			return ResultSet::getBigDecimal;
+		}
+		return (rs, index) -> rs.getObject(index, type);
+	}
+
+	@FunctionalInterface
+	private interface ColumnReader {
+		Object read(ResultSet rs, int index) throws SQLException;
+	}
+
+}
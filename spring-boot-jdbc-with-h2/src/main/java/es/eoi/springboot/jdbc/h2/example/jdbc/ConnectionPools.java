@@ -0,0 +1,49 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Utilidades para dimensionar pools de hilos según el pool de conexiones.
+ */
+public final class ConnectionPools {
+
+	private ConnectionPools() {
+	}
+
+	/**
+	 * Tamaño máximo del pool de Hikari que hay detrás de {@code dataSource}, o 0
+	 * si no es un pool de Hikari.
+	 */
+	public static int maximumPoolSize(DataSource dataSource) {
+		try {
+			if (dataSource.isWrapperFor(HikariDataSource.class)) {
+				return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+			}
+		} catch (SQLException ex) {
+			// se trata igual que un pool desconocido
+		}
+		return 0;
+	}
+
+	/**
+	 * Limita {@code threads} para que un componente que usa una conexión por
+	 * hilo deje libres al menos {@code reservedConnections} conexiones del pool
+	 * para el resto de la aplicación. Devuelve como mínimo 1 y, si el pool no es
+	 * de Hikari, {@code threads} sin cambios.
+	 */
+	public static int threadsLeavingReserve(DataSource dataSource, int threads, int reservedConnections) {
+		if (reservedConnections < 0) {
+			throw new IllegalArgumentException("reserved connections must not be negative: " + reservedConnections);
+		}
+		int maximumPoolSize = maximumPoolSize(dataSource);
+		if (maximumPoolSize <= 0) {
+			return threads;
+		}
+		return Math.max(1, Math.min(threads, maximumPoolSize - reservedConnections));
+	}
+
+}
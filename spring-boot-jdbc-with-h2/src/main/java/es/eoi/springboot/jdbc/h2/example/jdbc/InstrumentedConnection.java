@@ -0,0 +1,317 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Conexión de {@link InstrumentedDataSource}: delega todas las llamadas y
+ * envuelve las sentencias que crea para medirlas.
+ */
+class InstrumentedConnection implements Connection {
+
+	private final Connection target;
+
+	private final SqlStatementMetrics metrics;
+
+	InstrumentedConnection(Connection target, SqlStatementMetrics metrics) {
+		this.target = target;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Statement createStatement() throws SQLException {
+		return new InstrumentedStatement<>(target.createStatement(), this, metrics, null);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql), this, metrics, sql);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql) throws SQLException {
+		return new InstrumentedCallableStatement<>(target.prepareCall(sql), this, metrics, sql);
+	}
+
+	@Override
+	public String nativeSQL(String sql) throws SQLException {
+		return target.nativeSQL(sql);
+	}
+
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		target.setAutoCommit(autoCommit);
+	}
+
+	@Override
+	public boolean getAutoCommit() throws SQLException {
+		return target.getAutoCommit();
+	}
+
+	@Override
+	public void commit() throws SQLException {
+		target.commit();
+	}
+
+	@Override
+	public void rollback() throws SQLException {
+		target.rollback();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		target.close();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return target.isClosed();
+	}
+
+	@Override
+	public DatabaseMetaData getMetaData() throws SQLException {
+		return target.getMetaData();
+	}
+
+	@Override
+	public void setReadOnly(boolean readOnly) throws SQLException {
+		target.setReadOnly(readOnly);
+	}
+
+	@Override
+	public boolean isReadOnly() throws SQLException {
+		return target.isReadOnly();
+	}
+
+	@Override
+	public void setCatalog(String catalog) throws SQLException {
+		target.setCatalog(catalog);
+	}
+
+	@Override
+	public String getCatalog() throws SQLException {
+		return target.getCatalog();
+	}
+
+	@Override
+	public void setTransactionIsolation(int level) throws SQLException {
+		target.setTransactionIsolation(level);
+	}
+
+	@Override
+	public int getTransactionIsolation() throws SQLException {
+		return target.getTransactionIsolation();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return target.getWarnings();
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		target.clearWarnings();
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+		return new InstrumentedStatement<>(target.createStatement(resultSetType, resultSetConcurrency), this, metrics,
+				null);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType,
+			int resultSetConcurrency) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql, resultSetType, resultSetConcurrency),
+				this, metrics, sql);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return new InstrumentedCallableStatement<>(target.prepareCall(sql, resultSetType, resultSetConcurrency), this,
+				metrics, sql);
+	}
+
+	@Override
+	public Map<String, Class<?>> getTypeMap() throws SQLException {
+		return target.getTypeMap();
+	}
+
+	@Override
+	public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+		target.setTypeMap(map);
+	}
+
+	@Override
+	public void setHoldability(int holdability) throws SQLException {
+		target.setHoldability(holdability);
+	}
+
+	@Override
+	public int getHoldability() throws SQLException {
+		return target.getHoldability();
+	}
+
+	@Override
+	public Savepoint setSavepoint() throws SQLException {
+		return target.setSavepoint();
+	}
+
+	@Override
+	public Savepoint setSavepoint(String name) throws SQLException {
+		return target.setSavepoint(name);
+	}
+
+	@Override
+	public void rollback(Savepoint savepoint) throws SQLException {
+		target.rollback(savepoint);
+	}
+
+	@Override
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		target.releaseSavepoint(savepoint);
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		return new InstrumentedStatement<>(target.createStatement(resultSetType, resultSetConcurrency,
+				resultSetHoldability), this, metrics, null);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql, resultSetType, resultSetConcurrency,
+				resultSetHoldability), this, metrics, sql);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		return new InstrumentedCallableStatement<>(target.prepareCall(sql, resultSetType, resultSetConcurrency,
+				resultSetHoldability), this, metrics, sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql, autoGeneratedKeys), this, metrics, sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql, columnIndexes), this, metrics, sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+		return new InstrumentedPreparedStatement<>(target.prepareStatement(sql, columnNames), this, metrics, sql);
+	}
+
+	@Override
+	public Clob createClob() throws SQLException {
+		return target.createClob();
+	}
+
+	@Override
+	public Blob createBlob() throws SQLException {
+		return target.createBlob();
+	}
+
+	@Override
+	public NClob createNClob() throws SQLException {
+		return target.createNClob();
+	}
+
+	@Override
+	public SQLXML createSQLXML() throws SQLException {
+		return target.createSQLXML();
+	}
+
+	@Override
+	public boolean isValid(int timeout) throws SQLException {
+		return target.isValid(timeout);
+	}
+
+	@Override
+	public void setClientInfo(String name, String value) throws SQLClientInfoException {
+		target.setClientInfo(name, value);
+	}
+
+	@Override
+	public void setClientInfo(Properties properties) throws SQLClientInfoException {
+		target.setClientInfo(properties);
+	}
+
+	@Override
+	public String getClientInfo(String name) throws SQLException {
+		return target.getClientInfo(name);
+	}
+
+	@Override
+	public Properties getClientInfo() throws SQLException {
+		return target.getClientInfo();
+	}
+
+	@Override
+	public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+		return target.createArrayOf(typeName, elements);
+	}
+
+	@Override
+	public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+		return target.createStruct(typeName, attributes);
+	}
+
+	@Override
+	public void setSchema(String schema) throws SQLException {
+		target.setSchema(schema);
+	}
+
+	@Override
+	public String getSchema() throws SQLException {
+		return target.getSchema();
+	}
+
+	@Override
+	public void abort(Executor executor) throws SQLException {
+		target.abort(executor);
+	}
+
+	@Override
+	public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+		target.setNetworkTimeout(executor, milliseconds);
+	}
+
+	@Override
+	public int getNetworkTimeout() throws SQLException {
+		return target.getNetworkTimeout();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || target.isWrapperFor(iface);
+	}
+
+}
@@ -0,0 +1,42 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource que mide cada sentencia ejecutada a través de sus conexiones y
+ * la anota en {@link SqlStatementMetrics}: tiempo de ejecución, filas
+ * afectadas y, al cerrar el ResultSet, filas devueltas.
+ * <p>
+ * Al medir a nivel de conexión se cubren tanto las llamadas a JdbcTemplate
+ * como los cursores abiertos a mano (por ejemplo {@code streamAll}). Las
+ * conexiones, sentencias y ResultSet se envuelven en clases que delegan
+ * directamente en el driver ({@link InstrumentedConnection},
+ * {@link InstrumentedStatement}, {@link InstrumentedResultSet}), sin
+ * reflexión, porque {@code next()} y los {@code getXxx()} se llaman por cada
+ * fila leída.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+	private final SqlStatementMetrics metrics;
+
+	public InstrumentedDataSource(DataSource targetDataSource, SqlStatementMetrics metrics) {
+		super(targetDataSource);
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return new InstrumentedConnection(obtainTargetDataSource().getConnection(), metrics);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return new InstrumentedConnection(obtainTargetDataSource().getConnection(username, password), metrics);
+	}
+
+}
@@ -0,0 +1,378 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Sentencia de {@link InstrumentedConnection}: mide cada {@code execute*} y
+ * envuelve sus ResultSet para contar las filas devueltas. El resto de
+ * llamadas se delegan sin más.
+ */
+class InstrumentedStatement<S extends Statement> implements Statement {
+
+	final S target;
+
+	private final Connection connection;
+
+	final SqlStatementMetrics metrics;
+
+	/**
+	 * Última sentencia ejecutada o añadida al lote; la de
+	 * {@code prepareStatement} en las sentencias preparadas.
+	 */
+	String sql;
+
+	InstrumentedStatement(S target, Connection connection, SqlStatementMetrics metrics, String sql) {
+		this.target = target;
+		this.connection = connection;
+		this.metrics = metrics;
+		this.sql = sql;
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		long start = System.nanoTime();
+		ResultSet resultSet = target.executeQuery(sql);
+		executed(sql, start, 0);
+		return wrap(resultSet);
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		long start = System.nanoTime();
+		int rows = target.executeUpdate(sql);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		target.close();
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		return target.getMaxFieldSize();
+	}
+
+	@Override
+	public void setMaxFieldSize(int max) throws SQLException {
+		target.setMaxFieldSize(max);
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		return target.getMaxRows();
+	}
+
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		target.setMaxRows(max);
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		target.setEscapeProcessing(enable);
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return target.getQueryTimeout();
+	}
+
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		target.setQueryTimeout(seconds);
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		target.cancel();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return target.getWarnings();
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		target.clearWarnings();
+	}
+
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		target.setCursorName(name);
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		long start = System.nanoTime();
+		boolean hasResultSet = target.execute(sql);
+		executed(sql, start, 0);
+		return hasResultSet;
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return wrap(target.getResultSet());
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return target.getUpdateCount();
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		return target.getMoreResults();
+	}
+
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		target.setFetchDirection(direction);
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return target.getFetchDirection();
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		target.setFetchSize(rows);
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return target.getFetchSize();
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return target.getResultSetConcurrency();
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		return target.getResultSetType();
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		target.addBatch(sql);
+		this.sql = sql;
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		target.clearBatch();
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		long start = System.nanoTime();
+		int[] counts = target.executeBatch();
+		executed(sql, start, sum(counts));
+		return counts;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connection;
+	}
+
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		return target.getMoreResults(current);
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return target.getGeneratedKeys();
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		long start = System.nanoTime();
+		int rows = target.executeUpdate(sql, autoGeneratedKeys);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		long start = System.nanoTime();
+		int rows = target.executeUpdate(sql, columnIndexes);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		long start = System.nanoTime();
+		int rows = target.executeUpdate(sql, columnNames);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		long start = System.nanoTime();
+		boolean hasResultSet = target.execute(sql, autoGeneratedKeys);
+		executed(sql, start, 0);
+		return hasResultSet;
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		long start = System.nanoTime();
+		boolean hasResultSet = target.execute(sql, columnIndexes);
+		executed(sql, start, 0);
+		return hasResultSet;
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		long start = System.nanoTime();
+		boolean hasResultSet = target.execute(sql, columnNames);
+		executed(sql, start, 0);
+		return hasResultSet;
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		return target.getResultSetHoldability();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return target.isClosed();
+	}
+
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		target.setPoolable(poolable);
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return target.isPoolable();
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		target.closeOnCompletion();
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return target.isCloseOnCompletion();
+	}
+
+	@Override
+	public long getLargeUpdateCount() throws SQLException {
+		return target.getLargeUpdateCount();
+	}
+
+	@Override
+	public void setLargeMaxRows(long max) throws SQLException {
+		target.setLargeMaxRows(max);
+	}
+
+	@Override
+	public long getLargeMaxRows() throws SQLException {
+		return target.getLargeMaxRows();
+	}
+
+	@Override
+	public long[] executeLargeBatch() throws SQLException {
+		long start = System.nanoTime();
+		long[] counts = target.executeLargeBatch();
+		executed(sql, start, sum(counts));
+		return counts;
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql) throws SQLException {
+		long start = System.nanoTime();
+		long rows = target.executeLargeUpdate(sql);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		long start = System.nanoTime();
+		long rows = target.executeLargeUpdate(sql, autoGeneratedKeys);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		long start = System.nanoTime();
+		long rows = target.executeLargeUpdate(sql, columnIndexes);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+		long start = System.nanoTime();
+		long rows = target.executeLargeUpdate(sql, columnNames);
+		executed(sql, start, rows);
+		return rows;
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || target.isWrapperFor(iface);
+	}
+
+	/**
+	 * Anota la ejecución que empezó en {@code start} bajo {@code executed}, o
+	 * bajo la última sentencia si es {@code null}.
+	 */
+	void executed(String executed, long start, long rowsAffected) {
+		long elapsed = System.nanoTime() - start;
+		if (executed != null) {
+			sql = executed;
+		}
+		if (sql != null) {
+			metrics.recordExecution(sql, elapsed, rowsAffected);
+		}
+	}
+
+	ResultSet wrap(ResultSet resultSet) {
+		if (resultSet == null || sql == null) {
+			return resultSet;
+		}
+		return new InstrumentedResultSet(resultSet, this, metrics, sql);
+	}
+
+	static long sum(int[] counts) {
+		long rows = 0;
+		for (int count : counts) {
+			rows += Math.max(count, 0);
+		}
+		return rows;
+	}
+
+	static long sum(long[] counts) {
+		long rows = 0;
+		for (long count : counts) {
+			rows += Math.max(count, 0);
+		}
+		return rows;
+	}
+
+}
@@ -0,0 +1,49 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+/**
+ * Sentencias que cambian de una base de datos a otra. Se elige con la
+ * propiedad {@code student.jdbc.dialect}.
+ */
+public enum SqlDialect {
+
+	H2 {
+		@Override
+		public String upsert(String table, String keyColumn, String... columns) {
+			return "merge into " + table + " (" + String.join(", ", columns) + ") key(" + keyColumn + ") values("
+					+ placeholders(columns.length) + ")";
+		}
+	},
+
+	MYSQL {
+		@Override
+		public String upsert(String table, String keyColumn, String... columns) {
+			StringBuilder sql = new StringBuilder("insert into ").append(table)
+					.append(" (").append(String.join(", ", columns)).append(") values(")
+					.append(placeholders(columns.length)).append(") on duplicate key update ");
+			String separator = "";
+			for (String column : columns) {
+				if (!column.equals(keyColumn)) {
+					sql.append(separator).append(column).append(" = values(").append(column).append(')');
+					separator = ", ";
+				}
+			}
+			return sql.toString();
+		}
+	};
+
+	/**
+	 * Sentencia que inserta la fila o, si ya existe una con la misma clave,
+	 * actualiza el resto de columnas, en un único viaje a la base de datos.
+	 * Los parámetros van en el orden de {@code columns}.
+	 */
+	public abstract String upsert(String table, String keyColumn, String... columns);
+
+	private static String placeholders(int count) {
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			placeholders.append(i == 0 ? "?" : ", ?");
+		}
+		return placeholders.toString();
+	}
+
+}
@@ -0,0 +1,32 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Envuelve el DataSource de la aplicación en un {@link InstrumentedDataSource}
+ * salvo que {@code student.jdbc.metrics.enabled} sea {@code false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "student.jdbc.metrics.enabled", matchIfMissing = true)
+public class SqlMetricsConfiguration {
+
+	@Bean
+	static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<SqlStatementMetrics> metrics) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof InstrumentedDataSource)) {
+					return new InstrumentedDataSource((DataSource) bean, metrics.getObject());
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,26 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SqlMetricsController {
+
+	@Autowired
+	SqlStatementMetrics metrics;
+
+	@GetMapping("/metrics/sql")
+	public List<SqlStatementStats> retrieveSqlMetrics() {
+		return metrics.snapshot();
+	}
+
+	@DeleteMapping("/metrics/sql")
+	public void resetSqlMetrics() {
+		metrics.reset();
+	}
+
+}
@@ -0,0 +1,70 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+/**
+ * Reduce un texto SQL a una forma estable para agrupar sus métricas.
+ */
+final class SqlNormalizer {
+
+	private SqlNormalizer() {
+	}
+
+	static String normalize(String sql) {
+		StringBuilder out = new StringBuilder(sql.length());
+		int i = 0;
+		int length = sql.length();
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (Character.isWhitespace(c)) {
+				while (i < length && Character.isWhitespace(sql.charAt(i))) {
+					i++;
+				}
+				if (out.length() > 0 && i < length) {
+					out.append(' ');
+				}
+				continue;
+			}
+			if (c == '\'') {
+				i++;
+				while (i < length) {
+					if (sql.charAt(i) == '\'') {
+						if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+							i += 2;
+							continue;
+						}
+						break;
+					}
+					i++;
+				}
+				i++;
+				out.append('?');
+				continue;
+			}
+			if (Character.isDigit(c) && !partOfIdentifier(out)) {
+				while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				out.append('?');
+				continue;
+			}
+			out.append(Character.toLowerCase(c));
+			i++;
+		}
+		return collapseLists(out.toString());
+	}
+
+	private static boolean partOfIdentifier(StringBuilder out) {
+		if (out.length() == 0) {
+			return false;
+		}
+		char previous = out.charAt(out.length() - 1);
+		return Character.isLetterOrDigit(previous) || previous == '_';
+	}
+
+	/**
+	 * Convierte {@code (?, ?, ?)} y {@code (?,?)} en {@code (?)}.
+	 */
+	private static String collapseLists(String sql) {
+		return sql.replaceAll("\\(\\?(\\s*,\\s*\\?)+\\)", "(?)");
+	}
+
+}
@@ -0,0 +1,103 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de latencias y filas por sentencia SQL. Las sentencias se agrupan
+ * por su forma normalizada: minúsculas, espacios colapsados, literales
+ * sustituidos por {@code ?} y listas {@code in (?, ?, ...)} reducidas a
+ * {@code in (?)}.
+ * <p>
+ * Se guardan como mucho {@value #MAX_STATEMENTS} sentencias distintas; las
+ * que llegan después se acumulan en una entrada {@value #OTHER_STATEMENTS},
+ * para que el SQL generado al vuelo (tablas o columnas variables) no haga
+ * crecer el registro sin límite.
+ * <p>
+ * Las ejecuciones que superan {@code student.jdbc.metrics.slow-threshold} se
+ * escriben en el log con nivel WARN.
+ */
+@Component
+public class SqlStatementMetrics {
+
+	/**
+	 * Límite de textos SQL distintos cuya normalización se guarda; por encima
+	 * se normalizan en cada ejecución.
+	 */
+	private static final int MAX_CACHED_SQL = 10_000;
+
+	static final int MAX_STATEMENTS = 1_000;
+
+	static final String OTHER_STATEMENTS = "other";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Map<String, SqlStatementStats> statements = new ConcurrentHashMap<>();
+
+	private final Map<String, String> normalized = new ConcurrentHashMap<>();
+
+	private final long slowThresholdNanos;
+
+	public SqlStatementMetrics(@Value("${student.jdbc.metrics.slow-threshold:100ms}") Duration slowThreshold) {
+		this.slowThresholdNanos = slowThreshold.toNanos();
+	}
+
+	void recordExecution(String sql, long nanos, long rowsAffected) {
+		stats(sql).recordExecution(nanos, rowsAffected);
+		if (nanos >= slowThresholdNanos) {
+			logger.warn("Slow SQL ({} ms, {} rows affected): {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+					Math.max(rowsAffected, 0), sql);
+		}
+	}
+
+	void recordRowsReturned(String sql, long rows) {
+		stats(sql).recordRowsReturned(rows);
+	}
+
+	/**
+	 * Estadísticas de todas las sentencias, de mayor a menor tiempo total.
+	 */
+	public List<SqlStatementStats> snapshot() {
+		List<SqlStatementStats> snapshot = new ArrayList<>(statements.values());
+		snapshot.sort(Comparator.comparingLong(SqlStatementStats::getTotalMicros).reversed());
+		return snapshot;
+	}
+
+	public void reset() {
+		statements.clear();
+	}
+
+	private SqlStatementStats stats(String sql) {
+		String key = normalize(sql);
+		SqlStatementStats stats = statements.get(key);
+		if (stats != null) {
+			return stats;
+		}
+		if (statements.size() >= MAX_STATEMENTS) {
+			key = OTHER_STATEMENTS;
+		}
+		return statements.computeIfAbsent(key, SqlStatementStats::new);
+	}
+
+	private String normalize(String sql) {
+		String key = normalized.get(sql);
+		if (key == null) {
+			key = SqlNormalizer.normalize(sql);
+			if (normalized.size() < MAX_CACHED_SQL) {
+				normalized.put(sql, key);
+			}
+		}
+		return key;
+	}
+
+}
@@ -0,0 +1,66 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas acumuladas de una sentencia SQL normalizada.
+ */
+public class SqlStatementStats {
+
+	private final String sql;
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	private final LongAdder rowsReturned = new LongAdder();
+
+	private final LongAdder rowsAffected = new LongAdder();
+
+	SqlStatementStats(String sql) {
+		this.sql = sql;
+	}
+
+	void recordExecution(long nanos, long affected) {
+		latency.record(nanos);
+		if (affected > 0) {
+			rowsAffected.add(affected);
+		}
+	}
+
+	void recordRowsReturned(long rows) {
+		rowsReturned.add(rows);
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public long getExecutions() {
+		return latency.count();
+	}
+
+	public long getTotalMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(latency.total());
+	}
+
+	public long getP50Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(latency.percentile(0.50));
+	}
+
+	public long getP99Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(latency.percentile(0.99));
+	}
+
+	public long getMaxMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(latency.max());
+	}
+
+	public long getRowsReturned() {
+		return rowsReturned.sum();
+	}
+
+	public long getRowsAffected() {
+		return rowsAffected.sum();
+	}
+
+}
@@ -0,0 +1,142 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+/**
+ * Mapa de claves {@code long} con direccionamiento abierto y sondeo lineal.
+ * Guarda las claves en un {@code long[]}, sin objetos Long ni nodos por
+ * entrada. No admite valores null y no es thread-safe.
+ */
+final class LongObjectMap<V> {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+
+	private Object[] values;
+
+	private int mask;
+
+	private int size;
+
+	LongObjectMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(long key) {
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			Object value = values[i];
+			if (value == null) {
+				return null;
+			}
+			if (keys[i] == key) {
+				return (V) value;
+			}
+		}
+	}
+
+	void put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("null values are not supported");
+		}
+		int i = slot(key);
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size > values.length / 2) {
+			rehash(values.length * 2);
+		}
+	}
+
+	void remove(long key) {
+		int i = slot(key);
+		while (values[i] != null) {
+			if (keys[i] == key) {
+				shiftBack(i);
+				size--;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+	}
+
+	void clear() {
+		allocate(MIN_CAPACITY);
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	void forEach(LongObjectConsumer<? super V> action) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				action.accept(keys[i], (V) values[i]);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	interface LongObjectConsumer<V> {
+		void accept(long key, V value);
+	}
+
+	/**
+	 * Borrado sin marcas: las entradas siguientes del mismo grupo se mueven al
+	 * hueco si su posición ideal no queda entre el hueco y donde están.
+	 */
+	private void shiftBack(int gap) {
+		for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		values[gap] = null;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldKeys[i]);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+}
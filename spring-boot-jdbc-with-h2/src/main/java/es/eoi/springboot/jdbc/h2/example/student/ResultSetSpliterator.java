@@ -0,0 +1,50 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+/**
+ * Recorre un {@link ResultSet} abierto fila a fila, sin cargarlo en memoria.
+ * No cierra el ResultSet: de eso se encarga el {@code onClose} del stream.
+ */
+class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+	private final ResultSet resultSet;
+
+	private final RowMapper<T> rowMapper;
+
+	private final SQLExceptionTranslator exceptionTranslator;
+
+	private final String sql;
+
+	private int rowNum;
+
+	ResultSetSpliterator(ResultSet resultSet, RowMapper<T> rowMapper, SQLExceptionTranslator exceptionTranslator,
+			String sql) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		this.resultSet = resultSet;
+		this.rowMapper = rowMapper;
+		this.exceptionTranslator = exceptionTranslator;
+		this.sql = sql;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		try {
+			if (!resultSet.next()) {
+				return false;
+			}
+			action.accept(rowMapper.mapRow(resultSet, rowNum++));
+			return true;
+		} catch (SQLException ex) {
+			throw exceptionTranslator.translate("ResultSetSpliterator", sql, ex);
+		}
+	}
+
+}
@@ -0,0 +1,200 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import es.eoi.springboot.jdbc.h2.example.jdbc.ConnectionPools;
+
+/**
+ * Versión asíncrona de {@link StudentJdbcRepository}: cada llamada se ejecuta
+ * en un pool de hilos propio y devuelve un {@link CompletableFuture}.
+ * <p>
+ * El pool tiene tantos hilos como conexiones el pool de Hikari (o
+ * {@code student.async.threads}), menos las
+ * {@code student.jdbc.reserved-connections} que se dejan libres para el resto
+ * de la aplicación, y una cola acotada de
+ * {@code student.async.queue-capacity} tareas. Con la cola llena,
+ * {@code student.async.rejection-policy=fail-fast} devuelve enseguida un
+ * futuro fallido con {@link RejectedExecutionException}, y {@code block} para
+ * al llamante hasta {@code student.async.offer-timeout} esperando hueco.
+ */
+@Component
+public class StudentAsyncRepository {
+
+	public enum RejectionPolicy {
+		FAIL_FAST, BLOCK
+	}
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Value("${student.async.threads:0}")
+	int threads;
+
+	@Value("${student.jdbc.reserved-connections:2}")
+	int reservedConnections;
+
+	@Value("${student.async.queue-capacity:1000}")
+	int queueCapacity;
+
+	@Value("${student.async.rejection-policy:fail-fast}")
+	RejectionPolicy rejectionPolicy;
+
+	@Value("${student.async.offer-timeout:1s}")
+	Duration offerTimeout;
+
+	private ThreadPoolExecutor executor;
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder waited = new LongAdder();
+
+	private final LongAdder totalWaitNanos = new LongAdder();
+
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	@PostConstruct
+	void start() {
+		int poolSize = threads > 0 ? threads : ConnectionPools.maximumPoolSize(dataSource);
+		if (poolSize == 0) {
+			poolSize = Runtime.getRuntime().availableProcessors();
+		}
+		poolSize = ConnectionPools.threadsLeavingReserve(dataSource, poolSize, reservedConnections);
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "student-async-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, rejectionHandler());
+		logger.info("Student async repository using {} threads and a queue of {}", poolSize, queueCapacity);
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdown();
+	}
+
+	public CompletableFuture<Student> findById(long id) {
+		return submit(() -> repository.findById(id));
+	}
+
+	public CompletableFuture<List<Student>> findAll() {
+		return submit(repository::findAll);
+	}
+
+	public CompletableFuture<Integer> insert(Student student) {
+		return submit(() -> repository.insert(student));
+	}
+
+	public CompletableFuture<Integer> update(Student student) {
+		return submit(() -> repository.update(student));
+	}
+
+	public CompletableFuture<Integer> deleteById(long id) {
+		return submit(() -> repository.deleteById(id));
+	}
+
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public long getCompletedCount() {
+		return executor.getCompletedTaskCount();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Tiempo medio que pasan las tareas en la cola antes de empezar.
+	 */
+	public long getAverageWaitMicros() {
+		long count = waited.sum();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / count);
+	}
+
+	public long getMaxWaitMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get());
+	}
+
+	/**
+	 * Cualquier error de {@code call}, no solo las RuntimeException, termina
+	 * el futuro; si no, quien espera el resultado no acabaría nunca.
+	 */
+	<T> CompletableFuture<T> submit(Supplier<T> call) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		long enqueued = System.nanoTime();
+		try {
+			executor.execute(() -> {
+				recordWait(System.nanoTime() - enqueued);
+				try {
+					future.complete(call.get());
+				} catch (Throwable ex) {
+					future.completeExceptionally(ex);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			rejected.increment();
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	private void recordWait(long nanos) {
+		waited.increment();
+		totalWaitNanos.add(nanos);
+		maxWaitNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	private RejectedExecutionHandler rejectionHandler() {
+		if (rejectionPolicy == RejectionPolicy.FAIL_FAST) {
+			return new ThreadPoolExecutor.AbortPolicy();
+		}
+		return (runnable, pool) -> {
+			if (pool.isShutdown()) {
+				throw new RejectedExecutionException("Student async repository is shut down");
+			}
+			try {
+				if (!pool.getQueue().offer(runnable, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+					throw new RejectedExecutionException(
+							"Student async queue still full after " + offerTimeout.toMillis() + " ms");
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException(ex);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,97 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Caché de lectura de estudiantes por id, acotada en tamaño y en tiempo.
+ * <p>
+ * La carga de una entrada y su invalidación son atómicas por clave: una
+ * invalidación que llega mientras se carga el mismo id espera a que termine
+ * la carga y la descarta, así que tras invalidar un id después de confirmar
+ * una escritura ninguna lectura posterior devuelve el valor antiguo.
+ */
+@Component
+public class StudentCache {
+
+	private final Cache<Long, Student> cache;
+
+	public StudentCache(@Value("${student.cache.maximum-size:10000}") long maximumSize,
+			@Value("${student.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * Devuelve el estudiante cacheado o lo carga con {@code loader}. Se
+	 * devuelve siempre una copia para que el llamante no modifique la entrada
+	 * cacheada.
+	 */
+	public Student get(long id, LongFunction<Student> loader) {
+		return copy(cache.get(id, key -> loader.apply(key)));
+	}
+
+	/**
+	 * Devuelve copias de los estudiantes de {@code ids} que ya están en caché,
+	 * sin cargar los que faltan.
+	 */
+	public Map<Long, Student> getAllPresent(Iterable<Long> ids) {
+		Map<Long, Student> present = new HashMap<>();
+		cache.getAllPresent(ids).forEach((id, student) -> present.put(id, copy(student)));
+		return present;
+	}
+
+	public void invalidate(long id) {
+		cache.invalidate(id);
+	}
+
+	public void invalidateAll(Iterable<Long> ids) {
+		cache.invalidateAll(ids);
+	}
+
+	/**
+	 * Vacía la caché. Necesario tras escribir en la tabla student sin pasar por
+	 * {@link StudentJdbcRepository}.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public long hitCount() {
+		return cache.stats().hitCount();
+	}
+
+	public long missCount() {
+		return cache.stats().missCount();
+	}
+
+	public long evictionCount() {
+		return cache.stats().evictionCount();
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public long estimatedSize() {
+		return cache.estimatedSize();
+	}
+
+	private static Student copy(Student student) {
+		return student == null ? null
+				: new Student(student.getId(), student.getName(), student.getPassportNumber());
+	}
+
+}
@@ -1,53 +1,430 @@
 package es.eoi.springboot.jdbc.h2.example.student;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.eoi.springboot.jdbc.h2.example.jdbc.ColumnIndexRowMapper;
+import es.eoi.springboot.jdbc.h2.example.jdbc.SqlDialect;
 
 @Repository
 public class StudentJdbcRepository {
+
+	/**
+	 * Columnas que devuelven todas las consultas, en el orden que espera
+	 * {@link #ROW_MAPPER}.
+	 */
+	private static final String[] COLUMNS = { "id", "name", "passport_number" };
+
+	static final RowMapper<Student> ROW_MAPPER = ColumnIndexRowMapper.of(Student.class, COLUMNS);
+
+	private static final String SELECT_SQL = "select " + String.join(", ", COLUMNS) + " from student";
+
+	private static final String FIND_ALL_SQL = SELECT_SQL;
+
+	private static final String FIND_BY_ID_SQL = SELECT_SQL + " where id=?";
+
+	static final String RANGE_SQL = SELECT_SQL + " where id >= ? and id <= ?";
+
+	private static final String PAGE_AFTER_SQL = SELECT_SQL + " where id > ? order by id limit ?";
+
+	private static final String PAGE_BEFORE_SQL = SELECT_SQL + " where id < ? order by id desc limit ?";
+
+	private static final String INSERT_SQL = "insert into student (id, name, passport_number) " + "values(?,  ?, ?)";
+
+	private static final String UPDATE_SQL = "update student " + " set name = ?, passport_number = ? " + " where id = ?";
+
+	private static final String CHANGE_LOG_SQL = "insert into student_change_log (student_id) values (?)";
+
+	private static final ParameterizedPreparedStatementSetter<Student> ROW_SETTER = (ps, student) -> {
+		ps.setObject(1, student.getId());
+		ps.setString(2, student.getName());
+		ps.setString(3, student.getPassportNumber());
+	};
+
 	@Autowired
 	JdbcTemplate jdbcTemplate;
 
-	class StudentRowMapper implements RowMapper<Student> {
-		@Override
-		public Student mapRow(ResultSet rs, int rowNum) throws SQLException {
-			Student student = new Student();
-			student.setId(rs.getLong("id"));
-			student.setName(rs.getString("name"));
-			student.setPassportNumber(rs.getString("passport_number"));
-			return student;
-		}
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	StudentCache studentCache;
 
+	/**
+	 * Número máximo de filas que se envían en cada lote JDBC. Cada lote se
+	 * ejecuta en su propia transacción, salvo que ya haya una abierta al
+	 * llamar: entonces todos los lotes forman parte de ella y se confirman o
+	 * deshacen juntos.
+	 */
+	@Value("${student.jdbc.batch-size:500}")
+	int batchSize;
+
+	/**
+	 * Filas que el driver trae en cada viaje a la base de datos al recorrer
+	 * {@link #streamAll()}.
+	 */
+	@Value("${student.jdbc.fetch-size:1000}")
+	int fetchSize;
+
+	/**
+	 * Número máximo de ids en cada consulta {@code in (...)} de
+	 * {@link #findByIds(Collection)}.
+	 */
+	@Value("${student.jdbc.in-list-size:500}")
+	int inListSize;
+
+	@Value("${student.jdbc.dialect:h2}")
+	SqlDialect dialect;
+
+	/**
+	 * Con {@code student.replica.enabled} cada escritura anota el id en
+	 * student_change_log y las lecturas por id o de la tabla entera se sirven
+	 * desde {@link StudentReplica} mientras esté al día.
+	 */
+	@Value("${student.replica.enabled:false}")
+	boolean replicaEnabled;
+
+	@Autowired
+	ObjectProvider<StudentReplica> replicaProvider;
+
+	private String upsertSql;
+
+	@PostConstruct
+	void init() {
+		if (batchSize <= 0) {
+			throw new IllegalStateException("student.jdbc.batch-size must be positive: " + batchSize);
+		}
+		if (inListSize <= 0) {
+			throw new IllegalStateException("student.jdbc.in-list-size must be positive: " + inListSize);
+		}
+		upsertSql = dialect.upsert("student", "id", COLUMNS);
 	}
 
 	public List<Student> findAll() {
-		return jdbcTemplate.query("select * from student", new StudentRowMapper());
+		StudentReplica replica = freshReplica();
+		if (replica != null) {
+			return replica.findAll();
+		}
+		return jdbcTemplate.query(FIND_ALL_SQL, ROW_MAPPER);
+	}
+
+	/**
+	 * Recorre la tabla student sin cargarla entera en memoria: las filas se
+	 * convierten a medida que llegan del cursor JDBC.
+	 * <p>
+	 * El stream mantiene abierta una conexión hasta que se cierra, por lo que
+	 * debe usarse siempre dentro de un try-with-resources.
+	 */
+	public Stream<Student> streamAll() {
+		DataSource dataSource = jdbcTemplate.getDataSource();
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = connection.prepareStatement(FIND_ALL_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			rs = ps.executeQuery();
+		} catch (SQLException ex) {
+			JdbcUtils.closeResultSet(rs);
+			JdbcUtils.closeStatement(ps);
+			DataSourceUtils.releaseConnection(connection, dataSource);
+			throw jdbcTemplate.getExceptionTranslator().translate("streamAll", FIND_ALL_SQL, ex);
+		}
+		PreparedStatement statement = ps;
+		ResultSet resultSet = rs;
+		return StreamSupport
+				.stream(new ResultSetSpliterator<>(resultSet, ROW_MAPPER,
+						jdbcTemplate.getExceptionTranslator(), FIND_ALL_SQL), false)
+				.onClose(() -> {
+					JdbcUtils.closeResultSet(resultSet);
+					JdbcUtils.closeStatement(statement);
+					DataSourceUtils.releaseConnection(connection, dataSource);
+				});
+	}
+
+	/**
+	 * Devuelve, en orden de id, los {@code limit} estudiantes siguientes a
+	 * {@code lastId}. Al filtrar por la clave primaria en lugar de usar OFFSET,
+	 * el coste de cada página no depende de su posición.
+	 */
+	public List<Student> findPageAfter(long lastId, int limit) {
+		return jdbcTemplate.query(PAGE_AFTER_SQL, new Object[] { lastId, limit }, ROW_MAPPER);
+	}
+
+	/**
+	 * Devuelve, en orden de id, los {@code limit} estudiantes anteriores a
+	 * {@code firstId}.
+	 */
+	public List<Student> findPageBefore(long firstId, int limit) {
+		List<Student> page = jdbcTemplate.query(PAGE_BEFORE_SQL, new Object[] { firstId, limit },
+				ROW_MAPPER);
+		Collections.reverse(page);
+		return page;
 	}
 
+	/**
+	 * Busca el estudiante en {@link StudentReplica} si está activa y al día; si
+	 * no, en {@link StudentCache} y, si no está, lo lee de la base de datos y lo
+	 * deja cacheado.
+	 */
 	public Student findById(long id) {
-		return jdbcTemplate.queryForObject("select * from student where id=?", new Object[] { id },
-				new BeanPropertyRowMapper<Student>(Student.class));
+		StudentReplica replica = freshReplica();
+		if (replica != null) {
+			Student student = replica.findById(id);
+			if (student == null) {
+				throw new EmptyResultDataAccessException(1);
+			}
+			return student;
+		}
+		return studentCache.get(id, this::loadById);
+	}
+
+	private StudentReplica freshReplica() {
+		if (!replicaEnabled) {
+			return null;
+		}
+		StudentReplica replica = replicaProvider.getIfAvailable();
+		return replica != null && replica.isFresh() ? replica : null;
+	}
+
+	/**
+	 * Busca varios estudiantes a la vez. Los que están en {@link StudentCache}
+	 * se sirven desde ella y el resto se leen con consultas {@code in (...)} de
+	 * hasta {@code student.jdbc.in-list-size} ids. Cada lista se rellena hasta
+	 * la siguiente potencia de dos repitiendo el último id, para que la base de
+	 * datos vea pocas variantes de la misma sentencia.
+	 *
+	 * @return los estudiantes encontrados por id; los ids nulos o que no
+	 *         existen no aparecen en el mapa
+	 */
+	public Map<Long, Student> findByIds(Collection<Long> ids) {
+		List<Long> distinctIds = ids.stream()
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toList());
+		Map<Long, Student> students = studentCache.getAllPresent(distinctIds);
+		List<Long> missing = distinctIds.stream()
+				.filter(id -> !students.containsKey(id))
+				.collect(Collectors.toList());
+		students.putAll(loadByIds(missing));
+		return students;
+	}
+
+	/**
+	 * Lee de la base de datos, sin pasar por {@link StudentCache}, los
+	 * estudiantes de {@code ids}, que no deben repetirse. Lo usa
+	 * {@link StudentReplica}, que no puede fiarse de una entrada cacheada que
+	 * quizá sea anterior al cambio que está aplicando.
+	 */
+	Map<Long, Student> loadByIds(Collection<Long> ids) {
+		List<Long> idList = new ArrayList<>(ids);
+		Map<Long, Student> students = new HashMap<>();
+		for (int from = 0; from < idList.size(); from += inListSize) {
+			List<Long> chunk = idList.subList(from, Math.min(from + inListSize, idList.size()));
+			Object[] args = inListArgs(chunk);
+			jdbcTemplate.query(inListSql(args.length), args, (RowCallbackHandler) rs -> {
+				Student student = ROW_MAPPER.mapRow(rs, 0);
+				students.put(student.getId(), student);
+			});
+		}
+		return students;
+	}
+
+	private Object[] inListArgs(List<Long> chunk) {
+		int size = Math.min(inListSize, Integer.highestOneBit(chunk.size() - 1) << 1);
+		Object[] args = new Object[Math.max(size, chunk.size())];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = chunk.get(Math.min(i, chunk.size() - 1));
+		}
+		return args;
+	}
+
+	private static String inListSql(int size) {
+		StringBuilder sql = new StringBuilder(SELECT_SQL.length() + 20 + size * 2);
+		sql.append(SELECT_SQL).append(" where id in (");
+		for (int i = 0; i < size; i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+		return sql.append(')').toString();
+	}
+
+	private Student loadById(long id) {
+		return jdbcTemplate.queryForObject(FIND_BY_ID_SQL, new Object[] { id }, ROW_MAPPER);
 	}
 
 	public int deleteById(long id) {
-		return jdbcTemplate.update("delete from student where id=?", new Object[] { id });
+		int rows = write(id, "delete from student where id=?", new Object[] { id });
+		invalidateAfterCommit(Collections.singletonList(id));
+		return rows;
 	}
 
 	public int insert(Student student) {
-		return jdbcTemplate.update("insert into student (id, name, passport_number) " + "values(?,  ?, ?)",
+		int rows = write(student.getId(), INSERT_SQL,
 				new Object[] { student.getId(), student.getName(), student.getPassportNumber() });
+		invalidate(student);
+		return rows;
 	}
 
 	public int update(Student student) {
-		return jdbcTemplate.update("update student " + " set name = ?, passport_number = ? " + " where id = ?",
+		int rows = write(student.getId(), UPDATE_SQL,
 				new Object[] { student.getName(), student.getPassportNumber(), student.getId() });
+		invalidate(student);
+		return rows;
+	}
+
+	/**
+	 * Ejecuta una escritura de una sola fila y, en modo réplica, la anota en
+	 * student_change_log dentro de la misma transacción.
+	 */
+	private int write(Long id, String sql, Object[] args) {
+		if (!replicaEnabled) {
+			return jdbcTemplate.update(sql, args);
+		}
+		return transactionTemplate.execute(status -> {
+			int rows = jdbcTemplate.update(sql, args);
+			jdbcTemplate.update(CHANGE_LOG_SQL, id);
+			return rows;
+		});
+	}
+
+	private void invalidate(Student student) {
+		if (student.getId() != null) {
+			invalidateAfterCommit(Collections.singletonList(student.getId()));
+		}
+	}
+
+	/**
+	 * Quita los ids de {@link StudentCache} al confirmar la transacción en
+	 * curso, o en el momento si no hay ninguna. Si se quitaran antes de
+	 * confirmar, una lectura concurrente volvería a cachear la fila anterior a
+	 * la escritura.
+	 */
+	private void invalidateAfterCommit(List<Long> ids) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			studentCache.invalidateAll(ids);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				studentCache.invalidateAll(ids);
+			}
+		});
+	}
+
+	/**
+	 * Inserta los estudiantes en lotes de {@code student.jdbc.batch-size} filas.
+	 * Si falla un lote, los anteriores ya están confirmados, salvo que la
+	 * llamada se haga dentro de una transacción (ver {@link #batchSize}).
+	 *
+	 * @return número de filas afectadas por cada estudiante, en el mismo orden
+	 *         en que se recorre la colección
+	 */
+	public int[] batchInsert(Collection<Student> students) {
+		return batchUpdate(INSERT_SQL, students, ROW_SETTER);
+	}
+
+	/**
+	 * Actualiza los estudiantes en lotes de {@code student.jdbc.batch-size} filas.
+	 *
+	 * @return número de filas afectadas por cada estudiante, en el mismo orden
+	 *         en que se recorre la colección
+	 */
+	public int[] batchUpdate(Collection<Student> students) {
+		return batchUpdate(UPDATE_SQL, students, (ps, student) -> {
+			ps.setString(1, student.getName());
+			ps.setString(2, student.getPassportNumber());
+			ps.setObject(3, student.getId());
+		});
+	}
+
+	/**
+	 * Inserta el estudiante o lo actualiza si ya existe uno con el mismo id,
+	 * con una sola sentencia ({@code merge} en H2, {@code insert ... on
+	 * duplicate key update} en MySQL).
+	 *
+	 * @return filas afectadas según el driver: MySQL devuelve 2 cuando la fila
+	 *         ya existía
+	 */
+	public int upsert(Student student) {
+		int rows = write(student.getId(), upsertSql,
+				new Object[] { student.getId(), student.getName(), student.getPassportNumber() });
+		invalidate(student);
+		return rows;
+	}
+
+	/**
+	 * Versión por lotes de {@link #upsert(Student)}, con las mismas reglas de
+	 * tamaño de lote y transacción que {@link #batchInsert(Collection)}.
+	 */
+	public int[] upsertAll(Collection<Student> students) {
+		return batchUpdate(upsertSql, students, ROW_SETTER);
+	}
+
+	private int[] batchUpdate(String sql, Collection<Student> students,
+			ParameterizedPreparedStatementSetter<Student> setter) {
+		int[] updateCounts = new int[students.size()];
+		List<Student> chunk = new ArrayList<>(Math.min(batchSize, students.size()));
+		int offset = 0;
+		for (Student student : students) {
+			chunk.add(student);
+			if (chunk.size() == batchSize) {
+				offset = executeChunk(sql, chunk, setter, updateCounts, offset);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			executeChunk(sql, chunk, setter, updateCounts, offset);
+		}
+		return updateCounts;
+	}
+
+	private int executeChunk(String sql, List<Student> chunk, ParameterizedPreparedStatementSetter<Student> setter,
+			int[] updateCounts, int offset) {
+		int[][] result = transactionTemplate.execute(status -> {
+			int[][] counts = jdbcTemplate.batchUpdate(sql, chunk, chunk.size(), setter);
+			if (replicaEnabled) {
+				jdbcTemplate.batchUpdate(CHANGE_LOG_SQL, chunk, chunk.size(),
+						(ps, student) -> ps.setObject(1, student.getId()));
+			}
+			return counts;
+		});
+		invalidateAfterCommit(chunk.stream()
+				.map(Student::getId)
+				.filter(id -> id != null)
+				.collect(Collectors.toList()));
+		System.arraycopy(result[0], 0, updateCounts, offset, result[0].length);
+		return offset + result[0].length;
 	}
 
 }
@@ -0,0 +1,58 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class StudentMetricsController {
+
+	@Autowired
+	StudentCache studentCache;
+
+	@Autowired
+	ObjectProvider<StudentReplica> replicaProvider;
+
+	@Autowired
+	StudentAsyncRepository asyncRepository;
+
+	@GetMapping("/metrics/student-cache")
+	public Map<String, Object> retrieveCacheMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("size", studentCache.estimatedSize());
+		metrics.put("hits", studentCache.hitCount());
+		metrics.put("misses", studentCache.missCount());
+		metrics.put("evictions", studentCache.evictionCount());
+		return metrics;
+	}
+
+	@GetMapping("/metrics/student-replica")
+	public Map<String, Object> retrieveReplicaMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		StudentReplica replica = replicaProvider.getIfAvailable();
+		metrics.put("enabled", replica != null);
+		if (replica != null) {
+			metrics.put("size", replica.size());
+			metrics.put("fresh", replica.isFresh());
+			metrics.put("replicationLagMillis", replica.getReplicationLagMillis());
+		}
+		return metrics;
+	}
+
+	@GetMapping("/metrics/student-async")
+	public Map<String, Object> retrieveAsyncMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("queueDepth", asyncRepository.getQueueDepth());
+		metrics.put("active", asyncRepository.getActiveCount());
+		metrics.put("completed", asyncRepository.getCompletedCount());
+		metrics.put("rejected", asyncRepository.getRejectedCount());
+		metrics.put("averageWaitMicros", asyncRepository.getAverageWaitMicros());
+		metrics.put("maxWaitMicros", asyncRepository.getMaxWaitMicros());
+		return metrics;
+	}
+
+}
@@ -0,0 +1,165 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collector;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import es.eoi.springboot.jdbc.h2.example.jdbc.ConnectionPools;
+
+/**
+ * Recorre la tabla student en paralelo: el rango de ids se divide en tramos
+ * que se leen con consultas {@code id >= ? and id <= ?} independientes, cada
+ * una con su propia conexión, en un {@link ForkJoinPool} propio. Los
+ * resultados parciales se combinan con el {@link Collector} del llamante.
+ * <p>
+ * El paralelismo es {@code student.scan.parallelism} o, si vale 0, el número
+ * de procesadores; en ambos casos se limita para dejar libres en el pool de
+ * conexiones {@code student.jdbc.reserved-connections} conexiones, de modo que
+ * un recorrido no deje sin conexión a las peticiones web.
+ * <p>
+ * Cuando un hilo espera en {@code join()}, el {@link ForkJoinPool} puede
+ * arrancar hilos de compensación que leerían más tramos a la vez; por eso
+ * cada lectura toma antes un permiso de un {@link Semaphore} con tantos
+ * permisos como hilos, y nunca hay más conexiones abiertas que el
+ * paralelismo.
+ */
+@Component
+public class StudentRangeScanner {
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${student.scan.parallelism:0}")
+	int configuredParallelism;
+
+	/**
+	 * Tramos por hilo: con más de uno, un hilo que acaba antes roba trabajo a
+	 * los demás en lugar de quedarse parado.
+	 */
+	@Value("${student.scan.ranges-per-thread:4}")
+	int rangesPerThread;
+
+	@Value("${student.jdbc.fetch-size:1000}")
+	int fetchSize;
+
+	@Value("${student.jdbc.reserved-connections:2}")
+	int reservedConnections;
+
+	private ForkJoinPool pool;
+
+	private Semaphore connections;
+
+	@PostConstruct
+	void start() {
+		if (rangesPerThread <= 0) {
+			throw new IllegalStateException("student.scan.ranges-per-thread must be positive: " + rangesPerThread);
+		}
+		int parallelism = ConnectionPools.threadsLeavingReserve(jdbcTemplate.getDataSource(),
+				configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors(),
+				reservedConnections);
+		pool = new ForkJoinPool(parallelism);
+		connections = new Semaphore(parallelism);
+		logger.info("Student range scanner using {} threads", parallelism);
+	}
+
+	@PreDestroy
+	void stop() {
+		pool.shutdownNow();
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Recorre todos los estudiantes y devuelve el resultado del collector. El
+	 * acumulador se usa desde un único hilo por tramo y los contenedores
+	 * parciales se combinan en orden de id.
+	 */
+	public <A, R> R scan(Collector<Student, A, R> collector) {
+		Map<String, Object> bounds = jdbcTemplate.queryForMap("select min(id) lo, max(id) hi from student");
+		Number lo = (Number) bounds.get("lo");
+		Number hi = (Number) bounds.get("hi");
+		A container;
+		if (lo == null) {
+			container = collector.supplier().get();
+		} else {
+			long span = hi.longValue() - lo.longValue() + 1;
+			long rangeSize = Math.max(1, -Math.floorDiv(-span, (long) getParallelism() * rangesPerThread));
+			container = pool.invoke(new RangeTask<>(collector, lo.longValue(), hi.longValue(), rangeSize));
+		}
+		return collector.finisher().apply(container);
+	}
+
+	private final class RangeTask<A> extends RecursiveTask<A> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Collector<Student, A, ?> collector;
+
+		private final long from;
+
+		private final long to;
+
+		private final long rangeSize;
+
+		RangeTask(Collector<Student, A, ?> collector, long from, long to, long rangeSize) {
+			this.collector = collector;
+			this.from = from;
+			this.to = to;
+			this.rangeSize = rangeSize;
+		}
+
+		@Override
+		protected A compute() {
+			if (to - from < rangeSize) {
+				return scanRange();
+			}
+			long middle = from + (to - from) / 2;
+			RangeTask<A> right = new RangeTask<>(collector, middle + 1, to, rangeSize);
+			right.fork();
+			A left = new RangeTask<>(collector, from, middle, rangeSize).compute();
+			BinaryOperator<A> combiner = collector.combiner();
+			return combiner.apply(left, right.join());
+		}
+
+		private A scanRange() {
+			A container = collector.supplier().get();
+			BiConsumer<A, Student> accumulator = collector.accumulator();
+			connections.acquireUninterruptibly();
+			try {
+				jdbcTemplate.query(connection -> {
+					PreparedStatement ps = connection.prepareStatement(StudentJdbcRepository.RANGE_SQL);
+					ps.setFetchSize(fetchSize);
+					ps.setLong(1, from);
+					ps.setLong(2, to);
+					return ps;
+				}, (RowCallbackHandler) rs -> accumulator.accept(container,
+						StudentJdbcRepository.ROW_MAPPER.mapRow(rs, 0)));
+			} finally {
+				connections.release();
+			}
+			return container;
+		}
+
+	}
+
+}
@@ -0,0 +1,260 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copia en memoria de la tabla student que se mantiene al día leyendo
+ * student_change_log, donde {@link StudentJdbcRepository} anota el id de cada
+ * fila que escribe dentro de la misma transacción.
+ * <p>
+ * Si el último refresco correcto empezó hace más de
+ * {@code student.replica.max-staleness}, {@link #isFresh()} devuelve false y
+ * el repositorio vuelve a leer de la base de datos, de modo que una lectura
+ * nunca devuelve datos más antiguos que ese margen.
+ * <p>
+ * Los números de secuencia del log se asignan al insertar pero se hacen
+ * visibles al confirmar, así que pueden aparecer huecos temporales. El
+ * refresco solo avanza hasta el primer hueco y vuelve a leer desde ahí en la
+ * siguiente pasada; un hueco que dura más de {@code student.replica.gap-timeout}
+ * se da por una transacción deshecha y se salta.
+ */
+@Component
+@ConditionalOnProperty(name = "student.replica.enabled")
+public class StudentReplica {
+
+	private static final String CHANGES_SQL = "select seq, student_id from student_change_log where seq > ? order by seq";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Value("${student.replica.refresh-interval:1s}")
+	Duration refreshInterval;
+
+	@Value("${student.replica.max-staleness:5s}")
+	Duration maxStaleness;
+
+	@Value("${student.replica.gap-timeout:30s}")
+	Duration gapTimeout;
+
+	@Value("${student.replica.log-retention:1h}")
+	Duration logRetention;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final LongObjectMap<Row> rows = new LongObjectMap<>(1024);
+
+	private ScheduledExecutorService scheduler;
+
+	private long appliedSeq;
+
+	private long gapSince;
+
+	private long lastPrune;
+
+	private volatile long lastRefreshStart;
+
+	@PostConstruct
+	void start() {
+		long start = System.nanoTime();
+		appliedSeq = jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from student_change_log", Long.class);
+		try (Stream<Student> students = repository.streamAll()) {
+			lock.writeLock().lock();
+			try {
+				students.forEach(student -> rows.put(student.getId(), new Row(student)));
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		lastRefreshStart = start;
+		lastPrune = start;
+		logger.info("Student replica loaded with {} rows", rows.size());
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "student-replica");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(),
+				refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * Indica si la copia está dentro del margen de retraso permitido.
+	 */
+	public boolean isFresh() {
+		return System.nanoTime() - lastRefreshStart <= maxStaleness.toNanos();
+	}
+
+	/**
+	 * Tiempo transcurrido desde el inicio del último refresco correcto: los
+	 * cambios confirmados antes de ese instante ya están en la copia.
+	 */
+	public long getReplicationLagMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRefreshStart);
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return rows.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	Student findById(long id) {
+		lock.readLock().lock();
+		try {
+			Row row = rows.get(id);
+			return row == null ? null : row.toStudent(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	List<Student> findAll() {
+		lock.readLock().lock();
+		try {
+			List<Student> students = new ArrayList<>(rows.size());
+			rows.forEach((id, row) -> students.add(row.toStudent(id)));
+			return students;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (RuntimeException ex) {
+			logger.warn("Student replica refresh failed, lag is {} ms", getReplicationLagMillis(), ex);
+		}
+	}
+
+	/**
+	 * Aplica los cambios anotados en el log desde el último refresco.
+	 */
+	synchronized void refresh() {
+		long start = System.nanoTime();
+		Set<Long> changedIds = new LinkedHashSet<>();
+		long[] lastContiguous = { appliedSeq };
+		boolean[] gap = { false };
+		jdbcTemplate.query(CHANGES_SQL, new Object[] { appliedSeq }, rs -> {
+			long seq = rs.getLong(1);
+			changedIds.add(rs.getLong(2));
+			if (!gap[0] && seq == lastContiguous[0] + 1) {
+				lastContiguous[0] = seq;
+			} else {
+				gap[0] = true;
+			}
+		});
+		if (!changedIds.isEmpty()) {
+			apply(changedIds);
+		}
+		advance(changedIds.isEmpty() ? appliedSeq : lastContiguous[0], gap[0], start);
+		lastRefreshStart = start;
+		if (start - lastPrune > logRetention.toNanos() / 10) {
+			pruneLog();
+			lastPrune = start;
+		}
+	}
+
+	/**
+	 * Copia las filas cambiadas leyéndolas de la base de datos: una entrada de
+	 * {@link StudentCache} puede ser anterior al cambio y, como el log ya no
+	 * volvería a anotar ese id, la copia se quedaría con el valor antiguo.
+	 */
+	private void apply(Set<Long> changedIds) {
+		Map<Long, Student> current = repository.loadByIds(changedIds);
+		lock.writeLock().lock();
+		try {
+			for (Long id : changedIds) {
+				Student student = current.get(id);
+				if (student == null) {
+					rows.remove(id);
+				} else {
+					rows.put(id, new Row(student));
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void advance(long contiguousSeq, boolean gap, long now) {
+		if (!gap) {
+			appliedSeq = contiguousSeq;
+			gapSince = 0;
+			return;
+		}
+		if (gapSince == 0 || contiguousSeq > appliedSeq) {
+			gapSince = now;
+		}
+		appliedSeq = contiguousSeq;
+		if (now - gapSince > gapTimeout.toNanos()) {
+			appliedSeq = jdbcTemplate.queryForObject(
+					"select coalesce(min(seq), ?) from student_change_log where seq > ?", Long.class,
+					appliedSeq + 1, appliedSeq);
+			gapSince = 0;
+			logger.warn("Skipping student_change_log gap, resuming at seq {}", appliedSeq);
+		}
+	}
+
+	private void pruneLog() {
+		long cutoff = System.currentTimeMillis() - logRetention.toMillis();
+		jdbcTemplate.update("delete from student_change_log where seq <= ? and changed_at < ?", appliedSeq,
+				new java.sql.Timestamp(cutoff));
+	}
+
+	/**
+	 * Columnas de un estudiante sin el id, que ya es la clave del mapa.
+	 */
+	private static final class Row {
+
+		private final String name;
+
+		private final String passportNumber;
+
+		Row(Student student) {
+			this.name = student.getName();
+			this.passportNumber = student.getPassportNumber();
+		}
+
+		Student toStudent(long id) {
+			return new Student(id, name, passportNumber);
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+package es.eoi.springboot.jdbc.h2.example.student.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser CSV (RFC 4180) que lee un canal por bloques y entrega cada campo a un
+ * {@link Handler} sin construir objetos intermedios por fila. El contenido del
+ * campo se pasa en un StringBuilder que se reutiliza y solo es válido durante
+ * la llamada.
+ */
+class CsvParser {
+
+	interface Handler {
+
+		void field(int index, StringBuilder value);
+
+		void endRecord(int fields, long line);
+
+	}
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Handler handler;
+
+	private final StringBuilder value = new StringBuilder(64);
+
+	private int fieldIndex;
+
+	private long line = 1;
+
+	private boolean quoted;
+
+	private boolean quoteInQuoted;
+
+	private boolean fieldStarted;
+
+	private boolean skipLineFeed;
+
+	CsvParser(Handler handler) {
+		this.handler = handler;
+	}
+
+	void parse(ReadableByteChannel channel) throws IOException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+		ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+		boolean endOfInput = false;
+		while (!endOfInput) {
+			endOfInput = channel.read(bytes) < 0;
+			bytes.flip();
+			decode(decoder.decode(bytes, chars, endOfInput));
+			bytes.compact();
+			consume(chars);
+		}
+		decode(decoder.flush(chars));
+		consume(chars);
+		if (quoted && !quoteInQuoted) {
+			throw new IllegalArgumentException("Línea " + line + ": comillas sin cerrar al final del fichero");
+		}
+		if (fieldStarted || fieldIndex > 0) {
+			endRecord();
+		}
+	}
+
+	private static void decode(CoderResult result) throws CharacterCodingException {
+		if (result.isError()) {
+			result.throwException();
+		}
+	}
+
+	private void consume(CharBuffer chars) {
+		chars.flip();
+		while (chars.hasRemaining()) {
+			accept(chars.get());
+		}
+		chars.clear();
+	}
+
+	private void accept(char c) {
+		if (skipLineFeed) {
+			skipLineFeed = false;
+			if (c == '\n') {
+				return;
+			}
+		}
+		if (quoted) {
+			if (quoteInQuoted) {
+				quoteInQuoted = false;
+				if (c == '"') {
+					value.append('"');
+					return;
+				}
+				quoted = false;
+			} else {
+				if (c == '"') {
+					quoteInQuoted = true;
+				} else {
+					if (c == '\n') {
+						line++;
+					}
+					value.append(c);
+				}
+				return;
+			}
+		}
+		switch (c) {
+		case ',':
+			endField();
+			break;
+		case '\r':
+			skipLineFeed = true;
+			endRecord();
+			break;
+		case '\n':
+			endRecord();
+			break;
+		case '"':
+			if (fieldStarted) {
+				throw new IllegalArgumentException("Línea " + line + ": comilla inesperada en un campo sin comillas");
+			}
+			quoted = true;
+			fieldStarted = true;
+			break;
+		default:
+			value.append(c);
+			fieldStarted = true;
+		}
+	}
+
+	private void endField() {
+		handler.field(fieldIndex++, value);
+		value.setLength(0);
+		fieldStarted = false;
+	}
+
+	private void endRecord() {
+		if (fieldStarted || fieldIndex > 0) {
+			endField();
+			handler.endRecord(fieldIndex, line);
+		}
+		fieldIndex = 0;
+		line++;
+	}
+
+}
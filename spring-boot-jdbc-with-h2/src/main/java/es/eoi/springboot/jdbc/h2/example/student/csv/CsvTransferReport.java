@@ -0,0 +1,37 @@
+package es.eoi.springboot.jdbc.h2.example.student.csv;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultado de una importación o exportación CSV.
+ */
+public class CsvTransferReport {
+
+	private final long rows;
+
+	private final long elapsedNanos;
+
+	public CsvTransferReport(long rows, long elapsedNanos) {
+		this.rows = rows;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedNanos == 0 ? 0 : rows * 1_000_000_000d / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CsvTransferReport [rows=%d, elapsedMillis=%d, rowsPerSecond=%.0f]", rows,
+				getElapsedMillis(), getRowsPerSecond());
+	}
+
+}
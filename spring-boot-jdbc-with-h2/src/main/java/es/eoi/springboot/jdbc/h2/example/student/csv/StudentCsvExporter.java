@@ -0,0 +1,83 @@
+package es.eoi.springboot.jdbc.h2.example.student.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import es.eoi.springboot.jdbc.h2.example.student.Student;
+import es.eoi.springboot.jdbc.h2.example.student.StudentJdbcRepository;
+
+/**
+ * Vuelca la tabla student a un CSV con cabecera {@code id,name,passport_number}
+ * recorriéndola con {@link StudentJdbcRepository#streamAll()}.
+ */
+@Component
+public class StudentCsvExporter {
+
+	static final String HEADER = "id,name,passport_number";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	public CsvTransferReport exportTo(Path file) throws IOException {
+		long start = System.nanoTime();
+		long rows = 0;
+		try (Stream<Student> students = repository.streamAll();
+				FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING);
+				Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE)) {
+			writer.write(HEADER);
+			writer.write('\n');
+			Iterator<Student> iterator = students.iterator();
+			while (iterator.hasNext()) {
+				write(writer, iterator.next());
+				rows++;
+			}
+		}
+		CsvTransferReport report = new CsvTransferReport(rows, System.nanoTime() - start);
+		logger.info("Exported {} -> {}", file, report);
+		return report;
+	}
+
+	private static void write(Writer writer, Student student) throws IOException {
+		writer.write(String.valueOf(student.getId()));
+		writer.write(',');
+		writeField(writer, student.getName());
+		writer.write(',');
+		writeField(writer, student.getPassportNumber());
+		writer.write('\n');
+	}
+
+	private static void writeField(Writer writer, String value) throws IOException {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				writer.write('"');
+			}
+			writer.write(c);
+		}
+		writer.write('"');
+	}
+
+}
@@ -0,0 +1,121 @@
+package es.eoi.springboot.jdbc.h2.example.student.csv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import es.eoi.springboot.jdbc.h2.example.student.Student;
+import es.eoi.springboot.jdbc.h2.example.student.StudentJdbcRepository;
+
+/**
+ * Carga un CSV con columnas {@code id,name,passport_number} en la tabla
+ * student. El fichero se lee por bloques y las filas se insertan en lotes, de
+ * modo que la memoria usada no depende del tamaño del fichero. La cabecera es
+ * opcional.
+ */
+@Component
+public class StudentCsvImporter {
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Value("${student.jdbc.batch-size:500}")
+	int batchSize;
+
+	public CsvTransferReport importFrom(Path file) throws IOException {
+		long start = System.nanoTime();
+		StudentRecordHandler handler = new StudentRecordHandler();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			new CsvParser(handler).parse(channel);
+		}
+		handler.flush();
+		CsvTransferReport report = new CsvTransferReport(handler.rows, System.nanoTime() - start);
+		logger.info("Imported {} -> {}", file, report);
+		return report;
+	}
+
+	private class StudentRecordHandler implements CsvParser.Handler {
+
+		private final List<Student> batch = new ArrayList<>(batchSize);
+
+		private long rows;
+
+		private Long id;
+
+		private String name;
+
+		private String passportNumber;
+
+		private boolean header;
+
+		@Override
+		public void field(int index, StringBuilder value) {
+			switch (index) {
+			case 0:
+				header = rows == 0 && batch.isEmpty() && "id".contentEquals(value);
+				id = header ? null : parseId(value);
+				break;
+			case 1:
+				name = value.toString();
+				break;
+			case 2:
+				passportNumber = value.toString();
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void endRecord(int fields, long line) {
+			if (header) {
+				header = false;
+				return;
+			}
+			if (fields != 3) {
+				throw new IllegalArgumentException("Línea " + line + ": se esperaban 3 columnas y hay " + fields);
+			}
+			batch.add(new Student(id, name, passportNumber));
+			if (batch.size() == batchSize) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (!batch.isEmpty()) {
+				repository.batchInsert(batch);
+				rows += batch.size();
+				batch.clear();
+			}
+		}
+
+		private Long parseId(StringBuilder value) {
+			if (value.length() == 0) {
+				throw new IllegalArgumentException("Fila " + (rows + batch.size() + 1) + ": id vacío");
+			}
+			long result = 0;
+			for (int i = 0; i < value.length(); i++) {
+				int digit = Character.digit(value.charAt(i), 10);
+				if (digit < 0) {
+					throw new IllegalArgumentException(
+							"Fila " + (rows + batch.size() + 1) + ": id no numérico '" + value + "'");
+				}
+				result = Math.addExact(Math.multiplyExact(result, 10), digit);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,99 @@
+package es.eoi.springboot.jdbc.h2.example.student.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import es.eoi.springboot.jdbc.h2.example.student.Student;
+import es.eoi.springboot.jdbc.h2.example.student.StudentJdbcRepository;
+
+/**
+ * Rellena la tabla student con datos sintéticos para pruebas de carga. Con la
+ * misma semilla genera siempre los mismos estudiantes, y los inserta con
+ * {@link StudentJdbcRepository#batchInsert} en lotes de
+ * {@code student.jdbc.batch-size} filas sin tenerlos todos en memoria.
+ * <p>
+ * Al arrancar genera {@code student.generator.rows} filas (ninguna por
+ * defecto); los perfiles {@code students-1m} y {@code students-10m} lo fijan a
+ * uno y diez millones.
+ */
+@Component
+public class StudentDataGenerator implements ApplicationRunner {
+
+	private static final String[] FIRST_NAMES = { "Jose", "Maria", "Antonio", "Carmen", "Manuel", "Ana", "Francisco",
+			"Isabel", "David", "Laura", "Javier", "Lucia", "Daniel", "Marta", "Carlos", "Elena" };
+
+	private static final String[] LAST_NAMES = { "Garcia", "Rodriguez", "Gonzalez", "Fernandez", "Lopez", "Martinez",
+			"Sanchez", "Perez", "Gomez", "Martin", "Jimenez", "Ruiz", "Hernandez", "Diaz", "Moreno", "Munoz" };
+
+	private static final String PASSPORT_LETTERS = "ABCDEFGHJKLMNPRSTVWXYZ";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Value("${student.generator.rows:0}")
+	long rows;
+
+	@Value("${student.generator.first-id:1000000}")
+	long firstId;
+
+	@Value("${student.generator.seed:42}")
+	long seed;
+
+	@Value("${student.jdbc.batch-size:500}")
+	int batchSize;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (rows > 0) {
+			generate(firstId, rows, seed);
+		}
+	}
+
+	/**
+	 * Inserta {@code count} estudiantes con ids consecutivos desde
+	 * {@code firstId}.
+	 *
+	 * @return número de filas insertadas
+	 */
+	public long generate(long firstId, long count, long seed) {
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(seed);
+		List<Student> batch = new ArrayList<>(batchSize);
+		long inserted = 0;
+		for (long i = 0; i < count; i++) {
+			batch.add(student(firstId + i, random));
+			if (batch.size() == batchSize || i == count - 1) {
+				repository.batchInsert(batch);
+				inserted += batch.size();
+				batch.clear();
+				if (inserted % 1_000_000 == 0) {
+					logger.info("Generated {} of {} students", inserted, count);
+				}
+			}
+		}
+		long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		logger.info("Generated {} students in {} ms ({} rows/s)", inserted, millis, inserted * 1000 / millis);
+		return inserted;
+	}
+
+	static Student student(long id, SplittableRandom random) {
+		String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		String passportNumber = PASSPORT_LETTERS.charAt(random.nextInt(PASSPORT_LETTERS.length()))
+				+ String.format("%07d", random.nextInt(10_000_000));
+		return new Student(id, name, passportNumber);
+	}
+
+}
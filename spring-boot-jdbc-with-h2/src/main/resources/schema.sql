@@ -4,4 +4,12 @@ create table student
    name varchar(255) not null,
    passport_number varchar(255) not null,
    primary key(id)
-);
\ No newline at end of file
+);
+
+create table student_change_log
+(
+   seq bigint auto_increment not null,
+   student_id integer not null,
+   changed_at timestamp default current_timestamp not null,
+   primary key(seq)
+);
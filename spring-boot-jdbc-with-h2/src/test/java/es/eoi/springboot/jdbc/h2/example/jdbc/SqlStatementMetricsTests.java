@@ -0,0 +1,86 @@
+package es.eoi.springboot.jdbc.h2.example.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbc.JdbcConnection;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class SqlStatementMetricsTests {
+
+	@Test
+	public void statementsAreGroupedByNormalizedSql() {
+		SqlStatementMetrics metrics = new SqlStatementMetrics(Duration.ofSeconds(1));
+
+		metrics.recordExecution("select id from student where id in (?,?,?)", 1_000, 0);
+		metrics.recordExecution("SELECT id\n  FROM student WHERE id IN (?, ?)", 3_000, 0);
+		metrics.recordRowsReturned("select id from student where id in (?,?,?)", 3);
+		metrics.recordExecution("update student set name = 'x' where id = 10001", 2_000, 1);
+
+		assertThat(metrics.snapshot()).extracting(SqlStatementStats::getSql).containsExactly(
+				"select id from student where id in (?)", "update student set name = ? where id = ?");
+		SqlStatementStats select = metrics.snapshot().get(0);
+		assertThat(select.getExecutions()).isEqualTo(2);
+		assertThat(select.getRowsReturned()).isEqualTo(3);
+		assertThat(metrics.snapshot().get(1).getRowsAffected()).isEqualTo(1);
+	}
+
+	@Test
+	public void statementsBeyondTheLimitAreFoldedIntoOther() {
+		SqlStatementMetrics metrics = new SqlStatementMetrics(Duration.ofSeconds(1));
+
+		for (int i = 0; i < SqlStatementMetrics.MAX_STATEMENTS + 5; i++) {
+			metrics.recordExecution("select c" + i + " from student", 1_000, 0);
+		}
+		metrics.recordExecution("select c0 from student", 1_000, 0);
+
+		assertThat(metrics.snapshot()).hasSize(SqlStatementMetrics.MAX_STATEMENTS + 1);
+		assertThat(metrics.snapshot()).filteredOn(stats -> stats.getSql().equals(SqlStatementMetrics.OTHER_STATEMENTS))
+				.extracting(SqlStatementStats::getExecutions).containsExactly(5L);
+		assertThat(metrics.snapshot()).filteredOn(stats -> stats.getSql().equals("select c0 from student"))
+				.extracting(SqlStatementStats::getExecutions).containsExactly(2L);
+	}
+
+	@Test
+	public void wrappersReturnTheInstrumentedConnectionAndStatement() throws SQLException {
+		SqlStatementMetrics metrics = new SqlStatementMetrics(Duration.ofSeconds(1));
+		InstrumentedDataSource dataSource = new InstrumentedDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:instrumented", "sa", ""), metrics);
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			assertThat(statement.getConnection()).isSameAs(connection);
+			try (ResultSet resultSet = statement.executeQuery("select x from system_range(1, 3)")) {
+				assertThat(resultSet.getStatement()).isSameAs(statement);
+				while (resultSet.next()) {
+					assertThat(resultSet.getLong(1)).isPositive();
+				}
+			}
+			assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+			assertThat(connection.isWrapperFor(JdbcConnection.class)).isTrue();
+		}
+
+		assertThat(metrics.snapshot()).hasSize(1);
+		assertThat(metrics.snapshot().get(0).getExecutions()).isEqualTo(1);
+		assertThat(metrics.snapshot().get(0).getRowsReturned()).isEqualTo(3);
+	}
+
+	@Test
+	public void histogramPercentilesStayWithinOneBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+
+		assertThat(histogram.percentile(0.50)).isBetween(500_000L, 562_500L);
+		assertThat(histogram.percentile(0.99)).isBetween(990_000L, 1_000_000L);
+		assertThat(histogram.max()).isEqualTo(1_000_000L);
+	}
+
+}
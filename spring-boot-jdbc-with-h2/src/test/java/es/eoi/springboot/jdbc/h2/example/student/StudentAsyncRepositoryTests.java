@@ -0,0 +1,84 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:asynctests", "student.async.threads=1",
+		"student.async.queue-capacity=2", "student.async.rejection-policy=fail-fast" })
+public class StudentAsyncRepositoryTests {
+
+	private static final long FIRST_ID = 700_000L;
+
+	@Autowired
+	StudentAsyncRepository asyncRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	StudentCache studentCache;
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from student where id >= ?", FIRST_ID);
+		studentCache.invalidateAll();
+	}
+
+	@Test
+	public void writesAndReadsCompleteOnTheExecutor() throws Exception {
+		Student student = asyncRepository.insert(new Student(FIRST_ID, "Ana", "P1"))
+				.thenCompose(rows -> asyncRepository.findById(FIRST_ID))
+				.get();
+
+		assertThat(student.getName()).isEqualTo("Ana");
+		assertThat(asyncRepository.deleteById(FIRST_ID).get()).isEqualTo(1);
+	}
+
+	@Test
+	public void errorsCompleteTheFutureExceptionally() {
+		CompletableFuture<Student> future = asyncRepository.submit(() -> {
+			throw new AssertionError("boom");
+		});
+
+		assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(AssertionError.class);
+	}
+
+	@Test
+	public void fullQueueFailsFast() {
+		List<CompletableFuture<List<Student>>> futures = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			futures.add(asyncRepository.findAll());
+		}
+
+		long rejected = futures.stream().filter(future -> {
+			try {
+				future.get();
+				return false;
+			} catch (ExecutionException ex) {
+				return ex.getCause() instanceof RejectedExecutionException;
+			} catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}).count();
+		assertThat(rejected).isPositive();
+		assertThat(asyncRepository.getRejectedCount()).isEqualTo(rejected);
+		assertThat(asyncRepository.getQueueDepth()).isZero();
+	}
+
+}
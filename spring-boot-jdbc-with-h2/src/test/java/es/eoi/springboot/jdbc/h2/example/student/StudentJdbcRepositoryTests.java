@@ -0,0 +1,235 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:repositorytests", "student.jdbc.batch-size=3",
+		"student.jdbc.in-list-size=4" })
+public class StudentJdbcRepositoryTests {
+
+	private static final long FIRST_ID = 500_000L;
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	StudentCache studentCache;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	StudentRangeScanner scanner;
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from student where id >= ?", FIRST_ID);
+		studentCache.invalidateAll();
+	}
+
+	@Test
+	public void batchInsertAndUpdateReportOneCountPerRow() {
+		List<Student> students = students(7);
+
+		assertThat(repository.batchInsert(students)).hasSize(7).containsOnly(1);
+
+		students.forEach(student -> student.setName(student.getName() + "-updated"));
+		students.add(new Student(FIRST_ID + 100, "Missing", "X"));
+		assertThat(repository.batchUpdate(students)).containsExactly(1, 1, 1, 1, 1, 1, 1, 0);
+		assertThat(repository.findById(FIRST_ID + 6).getName()).isEqualTo("Student 6-updated");
+	}
+
+	@Test
+	public void eachBatchCommitsOnItsOwnUnlessATransactionIsOpen() {
+		List<Student> students = students(5);
+		// el segundo lote repite un id
+		students.get(4).setId(FIRST_ID + 3);
+
+		assertThatThrownBy(() -> repository.batchInsert(students)).isInstanceOf(DuplicateKeyException.class);
+		assertThat(countStudents()).isEqualTo(3);
+
+		cleanUp();
+		assertThatThrownBy(() -> transactionTemplate.execute(status -> repository.batchInsert(students)))
+				.isInstanceOf(DuplicateKeyException.class);
+		assertThat(countStudents()).isZero();
+	}
+
+	@Test
+	public void streamAllReleasesTheConnectionOnClose() {
+		repository.batchInsert(students(10));
+
+		List<Long> ids;
+		try (Stream<Student> stream = repository.streamAll()) {
+			assertThat(activeConnections()).isEqualTo(1);
+			ids = stream.map(Student::getId).filter(id -> id >= FIRST_ID).collect(Collectors.toList());
+		}
+
+		assertThat(ids).hasSize(10);
+		assertThat(activeConnections()).isZero();
+	}
+
+	@Test
+	public void pagesAreSeekedByPrimaryKey() {
+		repository.batchInsert(students(10));
+
+		List<Student> page = repository.findPageAfter(FIRST_ID + 2, 3);
+		assertThat(page).extracting(Student::getId).containsExactly(FIRST_ID + 3, FIRST_ID + 4, FIRST_ID + 5);
+
+		page = repository.findPageBefore(FIRST_ID + 3, 3);
+		assertThat(page).extracting(Student::getId).containsExactly(FIRST_ID, FIRST_ID + 1, FIRST_ID + 2);
+
+		assertThat(repository.findPageAfter(FIRST_ID + 9, 3)).isEmpty();
+	}
+
+	@Test
+	public void findByIdIsCachedUntilTheStudentIsWritten() {
+		repository.insert(new Student(FIRST_ID, "Cached", "C1"));
+		repository.findById(FIRST_ID);
+		long hits = studentCache.hitCount();
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Cached");
+		assertThat(studentCache.hitCount()).isEqualTo(hits + 1);
+
+		repository.update(new Student(FIRST_ID, "Updated", "C1"));
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Updated");
+
+		repository.batchUpdate(Collections.singletonList(new Student(FIRST_ID, "Batch updated", "C1")));
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Batch updated");
+
+		repository.deleteById(FIRST_ID);
+		assertThatThrownBy(() -> repository.findById(FIRST_ID)).isInstanceOf(EmptyResultDataAccessException.class);
+	}
+
+	@Test
+	public void writesInsideATransactionInvalidateTheCacheOnCommit() {
+		repository.insert(new Student(FIRST_ID, "Before", "B1"));
+		repository.findById(FIRST_ID);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			repository.update(new Student(FIRST_ID, "After", "B1"));
+			// otro hilo lee la fila confirmada, anterior al update, y la cachea
+			assertThat(CompletableFuture.supplyAsync(() -> repository.findById(FIRST_ID)).join().getName())
+					.isEqualTo("Before");
+		});
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("After");
+	}
+
+	@Test
+	public void findByIdsSkipsMissingIds() {
+		repository.batchInsert(students(10));
+		repository.findById(FIRST_ID);
+
+		Map<Long, Student> found = repository.findByIds(
+				Arrays.asList(FIRST_ID, null, FIRST_ID + 1, FIRST_ID + 2, FIRST_ID + 3, FIRST_ID + 4, FIRST_ID + 5,
+						FIRST_ID, FIRST_ID + 9, FIRST_ID + 9, FIRST_ID + 50));
+
+		assertThat(found).containsOnlyKeys(FIRST_ID, FIRST_ID + 1, FIRST_ID + 2, FIRST_ID + 3, FIRST_ID + 4,
+				FIRST_ID + 5, FIRST_ID + 9);
+		assertThat(found.get(FIRST_ID + 9).getName()).isEqualTo("Student 9");
+		assertThat(repository.findByIds(Collections.emptyList())).isEmpty();
+	}
+
+	@Test
+	public void upsertInsertsOrUpdatesInOneStatement() {
+		repository.insert(new Student(FIRST_ID, "Existing", "E1"));
+		repository.findById(FIRST_ID);
+
+		assertThat(repository.upsert(new Student(FIRST_ID, "Merged", "E1"))).isEqualTo(1);
+		assertThat(repository.upsert(new Student(FIRST_ID + 1, "New", "N1"))).isEqualTo(1);
+		assertThat(repository.upsertAll(students(5))).containsOnly(1);
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Student 0");
+		assertThat(repository.findByIds(Arrays.asList(FIRST_ID + 1, FIRST_ID + 4))).hasSize(2);
+	}
+
+	@Test
+	public void rangeScanVisitsEveryStudentOnce() throws SQLException {
+		repository.batchInsert(students(50));
+
+		Map<Long, Long> visits = scanner.scan(Collectors.groupingBy(Student::getId, Collectors.counting()));
+
+		assertThat(visits.keySet()).containsExactlyInAnyOrderElementsOf(
+				repository.findAll().stream().map(Student::getId).collect(Collectors.toList()));
+		assertThat(visits.values()).containsOnly(1L);
+		// deja libres las dos conexiones de student.jdbc.reserved-connections
+		assertThat(scanner.getParallelism()).isLessThanOrEqualTo(
+				dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() - 2);
+	}
+
+	@Test
+	public void rangeScanNeverHoldsMoreConnectionsThanItsParallelism() throws SQLException {
+		repository.batchInsert(students(200));
+		AtomicInteger peak = new AtomicInteger();
+
+		// cada fila se lee con la conexión de su tramo abierta: se anota el
+		// máximo de conexiones activas del pool mientras dura el recorrido
+		Integer rows = scanner.scan(Collector.of(AtomicInteger::new, (count, student) -> {
+			peak.accumulateAndGet(activeConnections(), Math::max);
+			count.incrementAndGet();
+		}, (left, right) -> new AtomicInteger(left.get() + right.get()), AtomicInteger::get));
+
+		assertThat(rows).isEqualTo(countAll());
+		assertThat(peak.get()).isPositive().isLessThanOrEqualTo(scanner.getParallelism());
+		assertThat(peak.get()).isLessThanOrEqualTo(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() - 2);
+	}
+
+	private List<Student> students(int count) {
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			students.add(new Student(FIRST_ID + i, "Student " + i, "P" + i));
+		}
+		return students;
+	}
+
+	private int countStudents() {
+		return jdbcTemplate.queryForObject("select count(*) from student where id >= ?", Integer.class, FIRST_ID);
+	}
+
+	private int countAll() {
+		return jdbcTemplate.queryForObject("select count(*) from student", Integer.class);
+	}
+
+	private int activeConnections() {
+		try {
+			return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+		} catch (SQLException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package es.eoi.springboot.jdbc.h2.example.student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:replicatests", "student.replica.enabled=true",
+		"student.replica.refresh-interval=1h", "student.replica.max-staleness=1h" })
+public class StudentReplicaTests {
+
+	private static final long FIRST_ID = 600_000L;
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Autowired
+	StudentReplica replica;
+
+	@Autowired
+	StudentCache studentCache;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.queryForList("select id from student where id >= ?", Long.class, FIRST_ID)
+				.forEach(repository::deleteById);
+		replica.refresh();
+	}
+
+	@Test
+	public void writesBecomeVisibleAfterRefresh() {
+		repository.insert(new Student(FIRST_ID, "Ana", "P1"));
+
+		assertThatThrownBy(() -> repository.findById(FIRST_ID)).isInstanceOf(EmptyResultDataAccessException.class);
+
+		replica.refresh();
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Ana");
+		assertThat(repository.findAll()).extracting(Student::getId).contains(FIRST_ID);
+	}
+
+	@Test
+	public void batchWritesAndDeletesAreReplicated() {
+		repository.batchInsert(Arrays.asList(new Student(FIRST_ID, "Ana", "P1"), new Student(FIRST_ID + 1, "Luis", "P2")));
+		replica.refresh();
+		repository.update(new Student(FIRST_ID, "Ana María", "P1"));
+		repository.deleteById(FIRST_ID + 1);
+
+		replica.refresh();
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Ana María");
+		assertThatThrownBy(() -> repository.findById(FIRST_ID + 1))
+				.isInstanceOf(EmptyResultDataAccessException.class);
+		assertThat(replica.getReplicationLagMillis()).isLessThan(1000);
+	}
+
+	@Test
+	public void staleCacheEntryIsNotCopiedToReplica() {
+		repository.insert(new Student(FIRST_ID, "Ana", "P1"));
+		replica.refresh();
+		repository.update(new Student(FIRST_ID, "Ana María", "P1"));
+		// una lectura concurrente volvió a cachear la fila anterior al cambio
+		studentCache.get(FIRST_ID, id -> new Student(id, "Ana", "P1"));
+
+		replica.refresh();
+
+		assertThat(repository.findById(FIRST_ID).getName()).isEqualTo("Ana María");
+	}
+
+}
@@ -0,0 +1,80 @@
+package es.eoi.springboot.jdbc.h2.example.student.csv;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import es.eoi.springboot.jdbc.h2.example.student.StudentCache;
+import es.eoi.springboot.jdbc.h2.example.student.StudentJdbcRepository;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:csvtests", "student.jdbc.batch-size=2" })
+public class StudentCsvTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Autowired
+	StudentCsvImporter importer;
+
+	@Autowired
+	StudentCsvExporter exporter;
+
+	@Autowired
+	StudentJdbcRepository repository;
+
+	@Autowired
+	StudentCache studentCache;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from student");
+		studentCache.invalidateAll();
+	}
+
+	@Test
+	public void importsQuotedFieldsAndSkipsTheHeader() throws IOException {
+		Path csv = folder.newFile("students.csv").toPath();
+		Files.write(csv, Arrays.asList("id,name,passport_number", "1,Ana,A1", "2,\"Pérez, Luis\",\"B\"\"2\"",
+				"3,\"Dos\r\nlíneas\",C3"), StandardCharsets.UTF_8);
+		jdbcTemplate.update("delete from student");
+
+		CsvTransferReport report = importer.importFrom(csv);
+
+		assertThat(report.getRows()).isEqualTo(3);
+		assertThat(repository.findById(2).getName()).isEqualTo("Pérez, Luis");
+		assertThat(repository.findById(2).getPassportNumber()).isEqualTo("B\"2");
+		assertThat(repository.findById(3).getName()).isEqualTo("Dos\r\nlíneas");
+	}
+
+	@Test
+	public void exportedFileImportsBackToTheSameRows() throws IOException {
+		Path csv = folder.newFile("backup.csv").toPath();
+		jdbcTemplate.update("insert into student values(20001, 'Comillas \"y\", comas', 'X1')");
+		long rows = jdbcTemplate.queryForObject("select count(*) from student", Long.class);
+
+		assertThat(exporter.exportTo(csv).getRows()).isEqualTo(rows);
+		jdbcTemplate.update("delete from student");
+		assertThat(importer.importFrom(csv).getRows()).isEqualTo(rows);
+
+		assertThat(repository.findById(20001).getName()).isEqualTo("Comillas \"y\", comas");
+	}
+
+}
@@ -0,0 +1,49 @@
+package es.eoi.springboot.jdbc.h2.example.student.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:generatortests", "student.jdbc.batch-size=7" })
+public class StudentDataGeneratorTests {
+
+	private static final long FIRST_ID = 800_000L;
+
+	@Autowired
+	StudentDataGenerator generator;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@After
+	public void cleanUp() {
+		jdbcTemplate.update("delete from student where id >= ?", FIRST_ID);
+	}
+
+	@Test
+	public void sameSeedGeneratesSameStudents() {
+		assertThat(generator.generate(FIRST_ID, 50, 7)).isEqualTo(50);
+		List<Map<String, Object>> first = generated();
+		cleanUp();
+
+		generator.generate(FIRST_ID, 50, 7);
+
+		assertThat(first).hasSize(50);
+		assertThat(generated()).isEqualTo(first);
+	}
+
+	private List<Map<String, Object>> generated() {
+		return jdbcTemplate.queryForList("select * from student where id >= ? order by id", FIRST_ID);
+	}
+
+}
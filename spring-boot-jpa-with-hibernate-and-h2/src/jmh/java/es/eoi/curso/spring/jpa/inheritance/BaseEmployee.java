@@ -0,0 +1,65 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.MappedSuperclass;
+
+/**
+ * Columnas comunes de los empleados, las mismas que las de
+ * {@code springbootjpawithhibernateandh2.domain.Employee}. Cada estrategia de
+ * herencia define su propia raíz con el id y la anotación {@code @Inheritance}.
+ */
+@MappedSuperclass
+public abstract class BaseEmployee {
+
+    private String name;
+
+    private String city;
+
+    private String state;
+
+    private String street;
+
+    private String zip;
+
+    public abstract Long getId();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public void setStreet(String street) {
+        this.street = street;
+    }
+
+    public String getZip() {
+        return zip;
+    }
+
+    public void setZip(String zip) {
+        this.zip = zip;
+    }
+
+}
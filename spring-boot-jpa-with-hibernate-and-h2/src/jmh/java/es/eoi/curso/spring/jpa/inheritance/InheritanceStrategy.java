@@ -0,0 +1,91 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.function.DoubleFunction;
+import java.util.function.IntFunction;
+
+/**
+ * La misma jerarquía de empleados mapeada con cada estrategia de herencia de
+ * JPA. En todas ellas las entidades se llaman {@code Employee},
+ * {@code FullTimeEmployee} y {@code PartTimeEmployee}, así que las consultas
+ * HQL sirven para cualquier estrategia.
+ * <p>
+ * Las entidades están fuera del paquete de la aplicación para que Spring Boot
+ * no las registre en su {@code EntityManagerFactory}.
+ */
+public enum InheritanceStrategy {
+
+    SINGLE_TABLE(SingleTableFullTimeEmployee::new, SingleTablePartTimeEmployee::new,
+            SingleTableEmployee.class,
+            SingleTableEmployee.class, SingleTableFullTimeEmployee.class, SingleTablePartTimeEmployee.class),
+
+    JOINED(JoinedFullTimeEmployee::new, JoinedPartTimeEmployee::new,
+            JoinedEmployee.class,
+            JoinedEmployee.class, JoinedFullTimeEmployee.class, JoinedPartTimeEmployee.class),
+
+    TABLE_PER_CLASS(TablePerClassFullTimeEmployee::new, TablePerClassPartTimeEmployee::new,
+            TablePerClassEmployee.class,
+            TablePerClassEmployee.class, TablePerClassFullTimeEmployee.class, TablePerClassPartTimeEmployee.class);
+
+    private final IntFunction<BaseEmployee> fullTime;
+
+    private final DoubleFunction<BaseEmployee> partTime;
+
+    private final Class<? extends BaseEmployee> root;
+
+    private final Class<?>[] entities;
+
+    InheritanceStrategy(IntFunction<BaseEmployee> fullTime, DoubleFunction<BaseEmployee> partTime,
+                        Class<? extends BaseEmployee> root, Class<?>... entities) {
+        this.fullTime = fullTime;
+        this.partTime = partTime;
+        this.root = root;
+        this.entities = entities;
+    }
+
+    /**
+     * Raíz abstracta de la jerarquía, para cargar empleados por id sin saber
+     * su tipo.
+     */
+    public Class<? extends BaseEmployee> root() {
+        return root;
+    }
+
+    public BaseEmployee fullTime(int salary) {
+        return fullTime.apply(salary);
+    }
+
+    public BaseEmployee partTime(double hourlyWage) {
+        return partTime.apply(hourlyWage);
+    }
+
+    /**
+     * Crea un {@link SessionFactory} con solo las entidades de esta estrategia,
+     * generando el esquema en la base de datos indicada. Los inserts se envían
+     * en lotes de {@code batchSize}.
+     */
+    public SessionFactory buildSessionFactory(String url, int batchSize) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, url)
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.PASS, "")
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                // sin el import.sql de la aplicación, que es para su esquema
+                .applySetting(AvailableSettings.HBM2DDL_IMPORT_FILES, "")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entity : entities) {
+            sources.addAnnotatedClass(entity);
+        }
+        return sources.buildMetadata().buildSessionFactory();
+    }
+
+}
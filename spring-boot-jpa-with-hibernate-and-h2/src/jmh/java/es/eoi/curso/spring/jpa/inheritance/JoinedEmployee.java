@@ -0,0 +1,29 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Las columnas comunes en {@code Employee} y las de cada subtipo en su propia
+ * tabla, unida a la anterior por el id.
+ */
+@Entity(name = "Employee")
+@Inheritance(strategy = InheritanceType.JOINED)
+public abstract class JoinedEmployee extends BaseEmployee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
+    private Long id;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+}
@@ -0,0 +1,22 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.Entity;
+
+@Entity(name = "FullTimeEmployee")
+public class JoinedFullTimeEmployee extends JoinedEmployee {
+
+    protected Integer salary;
+
+    public JoinedFullTimeEmployee() {
+
+    }
+
+    public JoinedFullTimeEmployee(Integer salary) {
+        this.salary = salary;
+    }
+
+    public Integer getSalary() {
+        return salary;
+    }
+
+}
@@ -0,0 +1,31 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.DiscriminatorColumn;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Todos los empleados en una sola tabla {@code Employee}, con las columnas de
+ * todos los subtipos y {@code EMPLOYEE_TYPE} para distinguirlos.
+ */
+@Entity(name = "Employee")
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "EMPLOYEE_TYPE")
+public abstract class SingleTableEmployee extends BaseEmployee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
+    private Long id;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+}
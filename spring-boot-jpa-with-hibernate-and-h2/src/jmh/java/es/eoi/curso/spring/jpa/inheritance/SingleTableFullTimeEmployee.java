@@ -0,0 +1,24 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+@Entity(name = "FullTimeEmployee")
+@DiscriminatorValue("Full Time")
+public class SingleTableFullTimeEmployee extends SingleTableEmployee {
+
+    protected Integer salary;
+
+    public SingleTableFullTimeEmployee() {
+
+    }
+
+    public SingleTableFullTimeEmployee(Integer salary) {
+        this.salary = salary;
+    }
+
+    public Integer getSalary() {
+        return salary;
+    }
+
+}
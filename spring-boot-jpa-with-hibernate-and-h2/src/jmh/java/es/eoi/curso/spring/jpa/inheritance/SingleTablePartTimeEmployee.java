@@ -0,0 +1,24 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+@Entity(name = "PartTimeEmployee")
+@DiscriminatorValue("Part Time")
+public class SingleTablePartTimeEmployee extends SingleTableEmployee {
+
+    protected Double hourly_wage;
+
+    public SingleTablePartTimeEmployee() {
+
+    }
+
+    public SingleTablePartTimeEmployee(Double hourly_wage) {
+        this.hourly_wage = hourly_wage;
+    }
+
+    public Double getHourly_wage() {
+        return hourly_wage;
+    }
+
+}
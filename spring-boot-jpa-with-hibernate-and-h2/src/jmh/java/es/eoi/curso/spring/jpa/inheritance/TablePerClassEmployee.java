@@ -0,0 +1,29 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Una tabla completa por subtipo, sin tabla para la raíz abstracta: las
+ * consultas polimórficas son un {@code UNION ALL} de las tablas de los subtipos.
+ */
+@Entity(name = "Employee")
+@Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
+public abstract class TablePerClassEmployee extends BaseEmployee {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
+    private Long id;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+}
@@ -0,0 +1,22 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.Entity;
+
+@Entity(name = "FullTimeEmployee")
+public class TablePerClassFullTimeEmployee extends TablePerClassEmployee {
+
+    protected Integer salary;
+
+    public TablePerClassFullTimeEmployee() {
+
+    }
+
+    public TablePerClassFullTimeEmployee(Integer salary) {
+        this.salary = salary;
+    }
+
+    public Integer getSalary() {
+        return salary;
+    }
+
+}
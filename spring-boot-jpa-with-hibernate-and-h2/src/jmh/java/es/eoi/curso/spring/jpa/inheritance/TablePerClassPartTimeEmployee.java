@@ -0,0 +1,22 @@
+package es.eoi.curso.spring.jpa.inheritance;
+
+import javax.persistence.Entity;
+
+@Entity(name = "PartTimeEmployee")
+public class TablePerClassPartTimeEmployee extends TablePerClassEmployee {
+
+    protected Double hourly_wage;
+
+    public TablePerClassPartTimeEmployee() {
+
+    }
+
+    public TablePerClassPartTimeEmployee(Double hourly_wage) {
+        this.hourly_wage = hourly_wage;
+    }
+
+    public Double getHourly_wage() {
+        return hourly_wage;
+    }
+
+}
@@ -0,0 +1,44 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arranca la aplicación sin servidor web y sin trazas de SQL sobre una H2 en
+ * memoria, para usarla desde los benchmarks JMH.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Las propiedades se pasan como argumentos de línea de comandos para que
+     * tengan prioridad sobre application.properties.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        args.add("--spring.devtools.restart.enabled=false");
+        args.add("--spring.jpa.show-sql=false");
+        args.add("--spring.jpa.properties.hibernate.generate_statistics=false");
+        args.add("--logging.level.root=warn");
+        args.add("--logging.level.org.hibernate.type=warn");
+        // devtools intenta cerrar otra vez la H2 al parar el contexto
+        args.add("--logging.level.org.springframework.beans.factory.support.DisposableBeanAdapter=error");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(SpringBootJpaWithHibernateAndH2Application.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args.toArray(new String[0]));
+    }
+
+}
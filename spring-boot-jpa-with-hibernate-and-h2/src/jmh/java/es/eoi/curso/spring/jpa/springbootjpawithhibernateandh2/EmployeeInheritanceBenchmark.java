@@ -0,0 +1,192 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import es.eoi.curso.spring.jpa.inheritance.BaseEmployee;
+import es.eoi.curso.spring.jpa.inheritance.InheritanceStrategy;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * La jerarquía de empleados mapeada con {@code SINGLE_TABLE}, {@code JOINED} y
+ * {@code TABLE_PER_CLASS} (ver {@link InheritanceStrategy}) sobre una H2 en
+ * memoria con {@code employees} filas, dos de cada tres a jornada completa:
+ * <ul>
+ * <li>{@link #polymorphicFindAll}: todos los empleados,</li>
+ * <li>{@link #polymorphicFindByCity}: los de una ciudad (1 de cada 100),</li>
+ * <li>{@link #polymorphicFindById}: 1.000 empleados por id sin saber su tipo,</li>
+ * <li>{@link #subtypeFindBySalary}: los de jornada completa con salario alto,</li>
+ * <li>{@link #insert}: alta de 10.000 empleados en lotes de 50.</li>
+ * </ul>
+ * Al preparar los datos se imprime, por tabla, el número de filas y columnas y
+ * el espacio que ocupa en H2, para comparar el ancho de fila de cada estrategia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeInheritanceBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final int INSERTS = 10_000;
+
+    private static final int LOOKUPS = 1_000;
+
+    @Param({"SINGLE_TABLE", "JOINED", "TABLE_PER_CLASS"})
+    InheritanceStrategy strategy;
+
+    @Param({"100000", "1000000"})
+    int employees;
+
+    private SessionFactory sessionFactory;
+
+    private long lastId;
+
+    private long[] lookupIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        sessionFactory = strategy.buildSessionFactory("jdbc:h2:memFS:inheritance;DB_CLOSE_DELAY=-1", BATCH_SIZE);
+        for (int first = 0; first < employees; first += 100_000) {
+            insert(first, Math.min(first + 100_000, employees));
+        }
+        try (Session session = sessionFactory.openSession()) {
+            lastId = session.createQuery("select max(e.id) from Employee e", Long.class).getSingleResult();
+            List<Long> ids = session.createQuery("select e.id from Employee e", Long.class).getResultList();
+            SplittableRandom random = new SplittableRandom(42);
+            lookupIds = new long[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookupIds[i] = ids.get(random.nextInt(ids.size()));
+            }
+            printTables(session);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createQuery("delete from Employee e where e.id > :lastId")
+                    .setParameter("lastId", lastId)
+                    .executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<BaseEmployee> polymorphicFindAll() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("select e from Employee e", BaseEmployee.class)
+                    .setReadOnly(true)
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public List<BaseEmployee> polymorphicFindByCity() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("select e from Employee e where e.city = :city", BaseEmployee.class)
+                    .setParameter("city", "Ciudad 7")
+                    .setReadOnly(true)
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public int polymorphicFindById() {
+        int found = 0;
+        try (Session session = sessionFactory.openSession()) {
+            for (long id : lookupIds) {
+                if (session.get(strategy.root(), id) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<BaseEmployee> subtypeFindBySalary() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("select e from FullTimeEmployee e where e.salary >= :salary", BaseEmployee.class)
+                    .setParameter("salary", 2900)
+                    .setReadOnly(true)
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public long insert() {
+        return insert(employees, employees + INSERTS);
+    }
+
+    /**
+     * Da de alta los empleados {@code first} a {@code last - 1} en una
+     * transacción, vaciando la sesión en cada lote.
+     */
+    private long insert(int first, int last) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = first; i < last; i++) {
+                BaseEmployee employee = i % 3 == 0 ? strategy.partTime(10.0 + i % 20) : strategy.fullTime(1000 + i % 2000);
+                employee.setName("Empleado " + i);
+                employee.setCity("Ciudad " + i % 100);
+                employee.setState("Provincia " + i % 10);
+                employee.setStreet("Calle " + i % 1000);
+                employee.setZip(String.format("%05d", i % 100_000));
+                session.persist(employee);
+                if ((i - first + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return last - first;
+    }
+
+    private void printTables(Session session) {
+        List<?> tables = session.createNativeQuery("select table_name from information_schema.tables "
+                + "where table_schema = 'PUBLIC' and table_type = 'TABLE' order by table_name").getResultList();
+        for (Object table : tables) {
+            Number rows = (Number) session.createNativeQuery("select count(*) from " + table).getSingleResult();
+            Number columns = (Number) session.createNativeQuery("select count(*) from information_schema.columns "
+                    + "where table_schema = 'PUBLIC' and table_name = :table")
+                    .setParameter("table", table)
+                    .getSingleResult();
+            Number bytes = (Number) session.createNativeQuery("select disk_space_used(:table)")
+                    .setParameter("table", table)
+                    .getSingleResult();
+            System.out.printf("%s %s: %d filas, %d columnas, %d bytes (%d por fila)%n", strategy, table,
+                    rows.longValue(), columns.longValue(), bytes.longValue(),
+                    rows.longValue() == 0 ? 0 : bytes.longValue() / rows.longValue());
+        }
+    }
+
+}
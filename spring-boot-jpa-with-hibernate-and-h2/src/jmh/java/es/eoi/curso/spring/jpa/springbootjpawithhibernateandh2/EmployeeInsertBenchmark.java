@@ -0,0 +1,86 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.PartTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service.EmployeeBulkService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta de 100.000 empleados a jornada completa y parcial con
+ * {@link EmployeeBulkService}, sin lotes JDBC ({@code batchSize=1}, como antes
+ * de usar secuencias con optimizador pooled) y con lotes de 50.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmployeeInsertBenchmark {
+
+    private static final int EMPLOYEES = 100_000;
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeBulkService employeeBulkService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        employeeBulkService = context.getBean(EmployeeBulkService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        employees = new ArrayList<>(EMPLOYEES);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = i % 2 == 0 ? new FullTimeEmployee(1000 + i % 1000) : new PartTimeEmployee(10.0 + i % 10);
+            employee.setName("Empleado " + i);
+            employee.setCity("Alicante");
+            employees.add(employee);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() {
+        jdbcTemplate.update("delete from employee where id >= 100000");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int createAll() {
+        return employeeBulkService.createAll(employees);
+    }
+
+}
@@ -0,0 +1,85 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.PartTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeSummary;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeRepository;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service.EmployeeBulkService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listado de id, nombre y ciudad de todos los empleados cargando entidades en
+ * una transacción de escritura (con copia para comprobar cambios) y con
+ * {@link EmployeeRepository#findAllSummaries()}. Sin cachés de segundo nivel
+ * para medir solo la carga. La memoria se compara con {@code -prof gc}
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeListingBenchmark {
+
+    @Param({"10000", "100000"})
+    int employees;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        List<Employee> rows = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = i % 2 == 0 ? new FullTimeEmployee(1000) : new PartTimeEmployee(10.0);
+            employee.setName("Empleado " + i);
+            employee.setCity("Ciudad " + i % 50);
+            employee.setState("Provincia " + i % 10);
+            rows.add(employee);
+        }
+        context.getBean(EmployeeBulkService.class).createAll(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> entities() {
+        return transactionTemplate.execute(status -> employeeRepository.findAll());
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> summaries() {
+        return employeeRepository.findAllSummaries();
+    }
+
+}
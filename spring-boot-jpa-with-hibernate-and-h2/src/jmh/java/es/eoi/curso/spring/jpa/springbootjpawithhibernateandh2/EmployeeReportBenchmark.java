@@ -0,0 +1,107 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.PartTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeAggregate;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeReportRepository;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeRepository;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service.EmployeeBulkService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Totales por tipo de empleado, ciudad y provincia calculados en Java tras
+ * cargar todos los empleados y con {@link EmployeeReportRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeReportBenchmark {
+
+    @Param({"1000000"})
+    int employees;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeReportRepository employeeReportRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeReportRepository = context.getBean(EmployeeReportRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        EmployeeBulkService employeeBulkService = context.getBean(EmployeeBulkService.class);
+        List<Employee> batch = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            Employee employee = i % 3 == 0 ? new PartTimeEmployee(10.0 + i % 20) : new FullTimeEmployee(1000 + i % 2000);
+            employee.setName("Empleado " + i);
+            employee.setCity("Ciudad " + i % 100);
+            employee.setState("Provincia " + i % 10);
+            batch.add(employee);
+            if (batch.size() == 100_000) {
+                employeeBulkService.createAll(batch);
+                batch.clear();
+            }
+        }
+        employeeBulkService.createAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<List<String>, DoubleSummaryStatistics> loadEverything() {
+        return transactionTemplate.execute(status -> employeeRepository.findAll().stream()
+                .collect(Collectors.groupingBy(
+                        employee -> Arrays.asList(employee.getClass().getSimpleName(), employee.getCity(), employee.getState()),
+                        Collectors.summarizingDouble(EmployeeReportBenchmark::amount))));
+    }
+
+    @Benchmark
+    public List<EmployeeAggregate> inDatabase() {
+        return employeeReportRepository.aggregateByTypeCityAndState();
+    }
+
+    private static double amount(Employee employee) {
+        if (employee instanceof FullTimeEmployee) {
+            Integer salary = ((FullTimeEmployee) employee).getSalary();
+            return salary == null ? 0 : salary;
+        }
+        Double hourlyWage = ((PartTimeEmployee) employee).getHourly_wage();
+        return hourlyWage == null ? 0 : hourlyWage;
+    }
+
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +19,8 @@ import java.util.Optional;
 @SpringBootApplication
 public class SpringBootJpaWithHibernateAndH2Application implements CommandLineRunner {
 
+	static final int STARTUP_STEPS = 4096;
+
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 
 	@Autowired
@@ -27,7 +30,10 @@ public class SpringBootJpaWithHibernateAndH2Application implements CommandLineRu
 	EmployeeRepository employeeRepository;
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpringBootJpaWithHibernateAndH2Application.class, args);
+		SpringApplication application = new SpringApplication(SpringBootJpaWithHibernateAndH2Application.class);
+		// Guarda los pasos del arranque para consultarlos en /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 	@Override
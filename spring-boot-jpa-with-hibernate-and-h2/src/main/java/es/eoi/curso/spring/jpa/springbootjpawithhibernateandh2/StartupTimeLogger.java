@@ -0,0 +1,51 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Escribe en el log cuánto ha tardado la aplicación en estar lista, desde el
+ * arranque de la JVM, y los pasos de arranque más lentos si se están
+ * registrando con {@link BufferingApplicationStartup}.
+ */
+@Component
+public class StartupTimeLogger implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final int SLOWEST_STEPS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        logger.info("Ready in {} ms since JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+            logger.info("Slowest startup steps: {}", timeline.getEvents().stream()
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_STEPS)
+                    .map(StartupTimeLogger::describe)
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static String describe(StartupTimeline.TimelineEvent event) {
+        StringBuilder description = new StringBuilder(event.getStartupStep().getName());
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            description.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+        }
+        return description.append(" (").append(event.getDuration().toMillis()).append(" ms)").toString();
+    }
+
+}
@@ -1,14 +1,34 @@
 package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
-import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Employee.WITH_TASKS, attributeNodes = @NamedAttributeNode("tasks"))
+@Table(indexes = @Index(name = "idx_employee_type_city_state", columnList = "EMPLOYEE_TYPE, city, state"))
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "EMPLOYEE_TYPE")
 public class Employee {
+
+    /**
+     * Plan de carga que trae las tareas en la misma consulta que el empleado.
+     */
+    public static final String WITH_TASKS = "Employee.withTasks";
+
+    // Hibernate reserva 50 ids por cada consulta a la secuencia, y los ids se
+    // conocen antes del insert, lo que permite enviar los inserts en lotes.
+    // Empieza por encima de los ids que carga import.sql
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", initialValue = 100000, allocationSize = 50)
     private Long id;
 
     private String name;
@@ -21,8 +41,15 @@ public class Employee {
 
     private String zip;
 
+    // Si las tareas se cargan de forma perezosa, se inicializan las de hasta
+    // 50 empleados del contexto de persistencia con una sola consulta.
+    // Con un Set, añadir o quitar una tarea inserta o borra solo esa fila de
+    // employee_tasks; con una List (bag) Hibernate borraba y volvía a insertar
+    // todas las asignaciones del empleado
     @ManyToMany
-    private List<Task> tasks;
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Task> tasks;
 
     public Employee() {
 
@@ -56,11 +83,11 @@ public class Employee {
         this.name = name;
     }
 
-    public List<Task> getTasks() {
+    public Set<Task> getTasks() {
         return tasks;
     }
 
-    public void setTasks(List<Task> tasks) {
+    public void setTasks(Set<Task> tasks) {
         this.tasks = tasks;
     }
 
@@ -106,7 +133,18 @@ public class Employee {
                 ", state='" + state + '\'' +
                 ", street='" + street + '\'' +
                 ", zip='" + zip + '\'' +
-                ", tasks=" + tasks +
+                ", tasks=" + taskIds() +
                 '}';
     }
+
+    /**
+     * Ids de las tareas, ordenados, solo si ya están cargadas: toString no debe
+     * lanzar consultas ni fallar con el empleado fuera de la sesión.
+     */
+    private Object taskIds() {
+        if (tasks == null || !Hibernate.isInitialized(tasks)) {
+            return tasks == null ? null : "<not loaded>";
+        }
+        return tasks.stream().map(Task::getId).sorted().collect(Collectors.toList());
+    }
 }
@@ -3,9 +3,14 @@ package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain;
 import javax.persistence.*;
 
 @Entity
-@DiscriminatorValue("Full Time")
+@DiscriminatorValue(FullTimeEmployee.TYPE)
 public class FullTimeEmployee extends Employee{
 
+    /**
+     * Valor de EMPLOYEE_TYPE para este tipo de empleado.
+     */
+    public static final String TYPE = "Full Time";
+
     protected Integer salary;
 
     public FullTimeEmployee() {
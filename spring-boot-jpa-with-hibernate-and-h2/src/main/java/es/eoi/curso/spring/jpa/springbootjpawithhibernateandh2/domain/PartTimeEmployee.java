@@ -4,9 +4,14 @@ import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 
 @Entity
-@DiscriminatorValue("Part Time")
+@DiscriminatorValue(PartTimeEmployee.TYPE)
 public class PartTimeEmployee extends Employee{
 
+    /**
+     * Valor de EMPLOYEE_TYPE para este tipo de empleado.
+     */
+    public static final String TYPE = "Part Time";
+
     protected Double hourly_wage;
 
     public PartTimeEmployee() {
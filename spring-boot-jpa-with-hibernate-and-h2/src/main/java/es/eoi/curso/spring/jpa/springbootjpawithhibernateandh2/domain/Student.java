@@ -1,13 +1,24 @@
 package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
+// Sin bloqueos en caché: una lectura concurrente con una actualización puede
+// ver brevemente el valor anterior
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Student {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", initialValue = 100000, allocationSize = 50)
     private Long id;
     private String name;
     private String passportNumber;
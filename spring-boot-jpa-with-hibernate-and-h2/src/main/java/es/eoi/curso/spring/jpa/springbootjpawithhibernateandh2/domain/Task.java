@@ -1,22 +1,36 @@
 package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToMany;
+import javax.persistence.SequenceGenerator;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Task {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", initialValue = 100000, allocationSize = 50)
     private Long id;
 
     private String name;
 
     private Boolean done;
 
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
     @ManyToMany(mappedBy = "tasks")
     private List<Employee> employees;
 
@@ -26,7 +40,7 @@ public class Task {
 
     public Task(String name, Boolean done) {
         this.name = name;
-        this.done = done;
+        setDone(done);
     }
 
     public Long getId() {
@@ -49,10 +63,25 @@ public class Task {
         return done;
     }
 
+    /**
+     * Al pasar a terminada se anota la fecha de cierre, si no la tenía, para
+     * que la tarea pueda archivarse más adelante.
+     */
     public void setDone(Boolean done) {
+        if (Boolean.TRUE.equals(done) && !Boolean.TRUE.equals(this.done) && completedAt == null) {
+            completedAt = LocalDateTime.now();
+        }
         this.done = done;
     }
 
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
     public List<Employee> getEmployees() {
         if(employees==null) {
             employees = new ArrayList<>();
@@ -0,0 +1,71 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tarea terminada que se ha sacado de la tabla task, con los ids de los
+ * empleados que la tenían asignada.
+ */
+@Entity
+@Table(name = "task_archive")
+public class TaskArchive {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @ElementCollection
+    @CollectionTable(name = "task_archive_employees", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "employee_id")
+    private Set<Long> employeeIds = new HashSet<>();
+
+    public TaskArchive() {
+
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public Set<Long> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskArchive{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", completedAt=" + completedAt +
+                ", archivedAt=" + archivedAt +
+                '}';
+    }
+}
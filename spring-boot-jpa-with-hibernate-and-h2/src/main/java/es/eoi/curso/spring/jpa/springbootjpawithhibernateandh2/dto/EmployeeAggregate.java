@@ -0,0 +1,24 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto;
+
+/**
+ * Totales de un grupo de empleados del mismo tipo, ciudad y provincia. El
+ * salario solo tiene valor en los de jornada completa y el precio por hora en
+ * los de jornada parcial.
+ */
+public interface EmployeeAggregate {
+
+    String getEmployeeType();
+
+    String getCity();
+
+    String getState();
+
+    long getEmployees();
+
+    Long getTotalSalary();
+
+    Double getAverageSalary();
+
+    Double getAverageHourlyWage();
+
+}
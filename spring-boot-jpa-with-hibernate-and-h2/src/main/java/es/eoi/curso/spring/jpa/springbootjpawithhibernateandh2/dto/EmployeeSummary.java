@@ -0,0 +1,42 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto;
+
+/**
+ * Datos de un empleado para listados. Se construye directamente desde la
+ * consulta, así que no es una entidad gestionada: Hibernate no guarda copia
+ * para comprobar cambios ni lo mantiene en el contexto de persistencia.
+ */
+public class EmployeeSummary {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String city;
+
+    public EmployeeSummary(Long id, String name, String city) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSummary{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", city='" + city + '\'' +
+                '}';
+    }
+}
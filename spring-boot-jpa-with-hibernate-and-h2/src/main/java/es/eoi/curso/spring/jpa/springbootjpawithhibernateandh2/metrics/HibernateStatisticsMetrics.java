@@ -0,0 +1,76 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateQueryMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Completa las métricas {@code hibernate.*} que Spring Boot publica a partir
+ * de las estadísticas de Hibernate (sesiones, flushes, conexiones, regiones de
+ * caché...) con:
+ * <ul>
+ * <li>cargas, fetches, inserts, updates y deletes por entidad
+ * ({@code hibernate.entity.*} con la etiqueta {@code entity}),</li>
+ * <li>ejecuciones y tiempos de cada consulta HQL ({@code hibernate.query}),</li>
+ * <li>el porcentaje de aciertos de la caché de segundo nivel
+ * ({@code hibernate.second.level.cache.hit.ratio}).</li>
+ * </ul>
+ * Requiere {@code hibernate.generate_statistics=true}.
+ */
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private static final String ENTITY_MANAGER_FACTORY = "entityManagerFactory";
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        Tags tags = Tags.of("entityManagerFactory", ENTITY_MANAGER_FACTORY);
+
+        for (String entity : statistics.getEntityNames()) {
+            Tags entityTags = tags.and("entity", entity);
+            entityCounter(registry, statistics, entity, entityTags, "loads", EntityStatistics::getLoadCount);
+            entityCounter(registry, statistics, entity, entityTags, "fetches", EntityStatistics::getFetchCount);
+            entityCounter(registry, statistics, entity, entityTags, "inserts", EntityStatistics::getInsertCount);
+            entityCounter(registry, statistics, entity, entityTags, "updates", EntityStatistics::getUpdateCount);
+            entityCounter(registry, statistics, entity, entityTags, "deletes", EntityStatistics::getDeleteCount);
+        }
+
+        Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics, HibernateStatisticsMetrics::hitRatio)
+                .tags(tags)
+                .description("Aciertos de la caché de segundo nivel sobre el total de accesos")
+                .register(registry);
+
+        HibernateQueryMetrics.monitor(registry, sessionFactory, ENTITY_MANAGER_FACTORY, tags);
+    }
+
+    private static void entityCounter(MeterRegistry registry, Statistics statistics, String entity, Tags tags,
+                                      String name, ToDoubleFunction<EntityStatistics> count) {
+        FunctionCounter.builder("hibernate.entity." + name, statistics,
+                        stats -> count.applyAsDouble(stats.getEntityStatistics(entity)))
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long total = hits + statistics.getSecondLevelCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+}
@@ -0,0 +1,36 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeAggregate;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Informes de empleados calculados en la base de datos. Las agrupaciones usan
+ * el índice de Employee sobre (EMPLOYEE_TYPE, city, state).
+ */
+@Repository
+public interface EmployeeReportRepository extends org.springframework.data.repository.Repository<Employee, Long> {
+
+    String AGGREGATE_COLUMNS = "select employee_type as employeeType, city, state, count(*) as employees,"
+            + " sum(salary) as totalSalary, avg(cast(salary as double)) as averageSalary,"
+            + " avg(hourly_wage) as averageHourlyWage from employee";
+
+    @Query(value = AGGREGATE_COLUMNS + " group by employee_type, city, state order by employee_type, city, state",
+            nativeQuery = true)
+    List<EmployeeAggregate> aggregateByTypeCityAndState();
+
+    @Query(value = AGGREGATE_COLUMNS + " where employee_type = :type group by employee_type, city, state"
+            + " order by city, state", nativeQuery = true)
+    List<EmployeeAggregate> aggregateByCityAndState(@Param("type") String employeeType);
+
+    @Query("select coalesce(sum(e.salary), 0) from FullTimeEmployee e")
+    long totalFullTimeSalary();
+
+    @Query("select avg(e.hourly_wage) from PartTimeEmployee e")
+    Double averagePartTimeHourlyWage();
+
+}
@@ -1,10 +1,51 @@
 package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
 
 import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    List<Employee> findAll();
+
+    /**
+     * Empleados con sus tareas ya cargadas, en una sola consulta. El distinct
+     * elimina en memoria los duplicados que produce el join, sin enviarlo a la
+     * base de datos.
+     */
+    @EntityGraph(Employee.WITH_TASKS)
+    @Query("select distinct e from Employee e")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<Employee> findAllWithTasks();
+
+    @EntityGraph(Employee.WITH_TASKS)
+    @Query("select e from Employee e where e.id = :id")
+    Optional<Employee> findByIdWithTasks(@Param("id") Long id);
+
+    /**
+     * Id, nombre y ciudad de todos los empleados, leyendo solo esas columnas.
+     */
+    @Query("select new es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeSummary(e.id, e.name, e.city)"
+            + " from Employee e order by e.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    @Query("select new es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeSummary(e.id, e.name, e.city)"
+            + " from Employee e order by e.id")
+    List<EmployeeSummary> findSummaries(Pageable pageable);
+
 }
@@ -2,9 +2,22 @@ package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
 
 import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    List<Student> findAll();
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    List<Student> findByName(String name);
+
 }
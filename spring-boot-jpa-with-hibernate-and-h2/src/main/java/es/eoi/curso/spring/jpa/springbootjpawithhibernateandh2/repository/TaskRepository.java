@@ -0,0 +1,39 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    /**
+     * Marca como terminadas las tareas pendientes indicadas con un solo update.
+     * Antes se vuelcan los cambios pendientes y después se vacía el contexto de
+     * persistencia, para que ninguna tarea cargada conserve el estado anterior.
+     *
+     * @return número de tareas que estaban pendientes
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.done = true, t.completedAt = :completedAt"
+            + " where t.id in :ids and (t.done = false or t.done is null)")
+    int completeAll(@Param("ids") Collection<Long> ids, @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Ids de las tareas terminadas antes de {@code before}. Las terminadas sin
+     * fecha de cierre, anteriores a que se guardara, también se devuelven: de
+     * lo contrario no se archivarían nunca.
+     */
+    @Query("select t.id from Task t where t.done = true"
+            + " and (t.completedAt < :before or t.completedAt is null) order by t.id")
+    List<Long> findCompletedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+}
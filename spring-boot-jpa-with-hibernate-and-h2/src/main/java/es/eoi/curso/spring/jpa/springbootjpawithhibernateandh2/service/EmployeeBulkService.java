@@ -0,0 +1,79 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Alta masiva de empleados con sus tareas.
+ * <p>
+ * Cada {@code hibernate.jdbc.batch_size} empleados se vacía el contexto de
+ * persistencia: los inserts pendientes salen en lotes JDBC (ordenados por
+ * entidad gracias a {@code order_inserts}) y las entidades ya guardadas dejan
+ * de ocupar memoria.
+ */
+@Service
+public class EmployeeBulkService {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    int batchSize;
+
+    @PostConstruct
+    void checkBatchSize() {
+        if (batchSize <= 0) {
+            throw new IllegalStateException("hibernate.jdbc.batch_size must be positive: " + batchSize);
+        }
+    }
+
+    /**
+     * Guarda los empleados y sus asignaciones de tareas en una transacción.
+     * Las tareas sin id se dan de alta; las que tienen id deben existir ya.
+     *
+     * @return número de empleados creados
+     */
+    @Transactional
+    public int createAll(Collection<? extends Employee> employees) {
+        int count = 0;
+        for (Employee employee : employees) {
+            if (employee.getTasks() != null) {
+                employee.setTasks(attach(employee.getTasks()));
+            }
+            entityManager.persist(employee);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
+
+    private Set<Task> attach(Set<Task> tasks) {
+        Set<Task> attached = new LinkedHashSet<>();
+        for (Task task : tasks) {
+            if (task.getId() == null) {
+                entityManager.persist(task);
+                attached.add(task);
+            } else if (entityManager.contains(task)) {
+                attached.add(task);
+            } else {
+                attached.add(entityManager.getReference(Task.class, task.getId()));
+            }
+        }
+        return attached;
+    }
+
+}
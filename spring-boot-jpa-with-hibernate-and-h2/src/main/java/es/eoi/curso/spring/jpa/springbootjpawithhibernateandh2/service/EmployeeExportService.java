@@ -0,0 +1,112 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+/**
+ * Exporta a CSV cada par empleado-tarea (los empleados sin tareas salen una
+ * vez con las columnas de la tarea vacías).
+ * <p>
+ * La consulta se recorre con un cursor de solo avance sobre una
+ * {@link StatelessSession}: las filas se leen de {@code export.fetch-size} en
+ * {@code export.fetch-size} y se escriben según llegan, sin pasar por el
+ * contexto de persistencia, así que la memoria usada no depende del número de
+ * empleados.
+ */
+@Service
+public class EmployeeExportService {
+
+    static final String HEADER = "employee_id,employee_type,name,city,state,task_id,task_name,task_done";
+
+    private static final String EXPORT_QUERY = "select e.id, type(e), e.name, e.city, e.state, t.id, t.name, t.done"
+            + " from Employee e left join e.tasks t order by e.id, t.id";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Value("${export.fetch-size:1000}")
+    int fetchSize;
+
+    /**
+     * Número de filas entre dos llamadas al callback de progreso.
+     */
+    @Value("${export.progress-interval:10000}")
+    long progressInterval;
+
+    public long exportTo(Path file, LongConsumer progress) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long rows = exportTo(writer, progress);
+            logger.info("Exported {} employee-task rows to {}", rows, file);
+            return rows;
+        }
+    }
+
+    /**
+     * Escribe la cabecera y las filas en {@code writer} y llama a
+     * {@code progress} con las filas escritas cada
+     * {@code export.progress-interval} filas y al terminar.
+     *
+     * @return número de filas escritas, sin contar la cabecera
+     */
+    public long exportTo(Writer writer, LongConsumer progress) throws IOException {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        long rows = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults results = session.createQuery(EXPORT_QUERY)
+                     .setFetchSize(fetchSize)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            while (results.next()) {
+                Object[] row = results.get();
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writeField(writer, row[i]);
+                }
+                writer.write('\n');
+                if (++rows % progressInterval == 0) {
+                    progress.accept(rows);
+                }
+            }
+        }
+        writer.flush();
+        progress.accept(rows);
+        return rows;
+    }
+
+    private static void writeField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof Class ? ((Class<?>) value).getSimpleName() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,133 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Asignación de tareas a empleados escribiendo directamente en
+ * employee_tasks: solo se insertan o borran las filas afectadas, sin cargar
+ * las tareas que el empleado ya tiene.
+ * <p>
+ * Al confirmar la transacción se quitan de la caché de segundo nivel las
+ * tareas del empleado, y las consultas cacheadas sobre employee_tasks dejan de
+ * ser válidas. Las colecciones ya cargadas en el contexto de persistencia de la
+ * transacción no se actualizan.
+ */
+@Service
+public class TaskAssignmentService {
+
+    private static final String JOIN_TABLE = "employee_tasks";
+
+    private static final String EMPLOYEE_TASKS = Employee.class.getName() + ".tasks";
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * Ids de tarea por sentencia en {@link #assignAll} y {@link #unassignAll}.
+     */
+    @Autowired
+    TaskBulkSettings bulkSettings;
+
+    /**
+     * Asigna la tarea al empleado si existe y no la tenía ya.
+     *
+     * @return {@code true} si se ha creado la asignación
+     */
+    @Transactional
+    public boolean assign(long employeeId, long taskId) {
+        return assignAll(employeeId, List.of(taskId)) == 1;
+    }
+
+    /**
+     * Asigna al empleado las tareas indicadas que existan y que aún no tenga,
+     * con un {@code insert ... select} por bloque de ids.
+     *
+     * @return número de asignaciones nuevas
+     */
+    @Transactional
+    public int assignAll(long employeeId, Collection<Long> taskIds) {
+        List<Long> ids = new ArrayList<>(taskIds);
+        evictTasksAfterCommit(employeeId);
+        int chunkSize = bulkSettings.getChunkSize();
+        int assigned = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            assigned += joinTableStatement("insert into employee_tasks (employees_id, tasks_id)"
+                    + " select :employeeId, t.id from task t where t.id in (:taskIds)"
+                    + " and not exists (select 1 from employee_tasks et"
+                    + " where et.employees_id = :employeeId and et.tasks_id = t.id)")
+                    .setParameter("employeeId", employeeId)
+                    .setParameter("taskIds", ids.subList(from, Math.min(from + chunkSize, ids.size())))
+                    .executeUpdate();
+        }
+        return assigned;
+    }
+
+    /**
+     * Quita la tarea al empleado.
+     *
+     * @return {@code true} si el empleado tenía la tarea
+     */
+    @Transactional
+    public boolean unassign(long employeeId, long taskId) {
+        return unassignAll(employeeId, List.of(taskId)) == 1;
+    }
+
+    /**
+     * Quita al empleado las tareas indicadas con un {@code delete} por bloque
+     * de ids.
+     *
+     * @return número de asignaciones borradas
+     */
+    @Transactional
+    public int unassignAll(long employeeId, Collection<Long> taskIds) {
+        List<Long> ids = new ArrayList<>(taskIds);
+        evictTasksAfterCommit(employeeId);
+        int chunkSize = bulkSettings.getChunkSize();
+        int unassigned = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            unassigned += joinTableStatement("delete from employee_tasks"
+                    + " where employees_id = :employeeId and tasks_id in (:taskIds)")
+                    .setParameter("employeeId", employeeId)
+                    .setParameter("taskIds", ids.subList(from, Math.min(from + chunkSize, ids.size())))
+                    .executeUpdate();
+        }
+        return unassigned;
+    }
+
+    /**
+     * Sin la tabla afectada, Hibernate vaciaría todas las regiones de la caché
+     * de segundo nivel tras cada sentencia nativa. Con ella solo invalida las
+     * consultas cacheadas, no las colecciones, de ahí
+     * {@link #evictTasksAfterCommit(long)}.
+     */
+    private NativeQuery<?> joinTableStatement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(JOIN_TABLE);
+    }
+
+    private void evictTasksAfterCommit(long employeeId) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evictCollectionData(EMPLOYEE_TASKS, employeeId);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,30 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Tamaño de bloque de las operaciones masivas sobre tareas, compartido por
+ * {@link TaskCompletionService} y {@link TaskAssignmentService}. Se comprueba
+ * una sola vez al arrancar: con 0 o menos los bucles por bloques no avanzarían.
+ */
+@Component
+class TaskBulkSettings {
+
+    @Value("${task.bulk.chunk-size:500}")
+    int chunkSize;
+
+    @PostConstruct
+    void checkChunkSize() {
+        if (chunkSize <= 0) {
+            throw new IllegalStateException("task.bulk.chunk-size must be positive: " + chunkSize);
+        }
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+}
@@ -0,0 +1,147 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.TaskRepository;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cierre de tareas y archivado de las terminadas, con sentencias que afectan a
+ * muchas filas a la vez en lugar de cargar y modificar cada tarea.
+ */
+@Service
+public class TaskCompletionService {
+
+    private static final String EMPLOYEE_TASKS = Employee.class.getName() + ".tasks";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * Ids por sentencia, tanto en los {@code in (...)} de
+     * {@link #completeAll(Collection)} como en cada transacción de
+     * {@link #archiveCompletedBefore(LocalDateTime)}.
+     */
+    @Autowired
+    TaskBulkSettings bulkSettings;
+
+    /**
+     * Marca como terminadas las tareas indicadas que aún estén pendientes.
+     *
+     * @return número de tareas que han pasado a terminadas
+     */
+    @Transactional
+    public int completeAll(Collection<Long> taskIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(taskIds);
+        int chunkSize = bulkSettings.getChunkSize();
+        int completed = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            completed += taskRepository.completeAll(ids.subList(from, Math.min(from + chunkSize, ids.size())), now);
+        }
+        return completed;
+    }
+
+    /**
+     * Mueve a task_archive las tareas terminadas antes de {@code threshold},
+     * junto con sus asignaciones, y las borra de task y employee_tasks. Cada
+     * bloque de {@code task.bulk.chunk-size} tareas va en su propia transacción
+     * para no bloquear las tablas durante todo el proceso.
+     *
+     * @return número de tareas archivadas
+     */
+    public int archiveCompletedBefore(LocalDateTime threshold) {
+        LocalDateTime archivedAt = LocalDateTime.now();
+        int archived = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> archiveChunk(threshold, archivedAt));
+            if (chunk == 0) {
+                break;
+            }
+            archived += chunk;
+        }
+        logger.info("Archived {} tasks completed before {}", archived, threshold);
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime threshold, LocalDateTime archivedAt) {
+        List<Long> ids = taskRepository.findCompletedBefore(threshold, PageRequest.of(0, bulkSettings.getChunkSize()));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        evictTasksAfterCommit();
+        nativeStatement("insert into task_archive (id, name, completed_at, archived_at)"
+                + " select id, name, completed_at, :archivedAt from task where id in (:ids)", "task_archive")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        nativeStatement("insert into task_archive_employees (task_id, employee_id)"
+                + " select tasks_id, employees_id from employee_tasks where tasks_id in (:ids)",
+                "task_archive_employees")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        nativeStatement("delete from employee_tasks where tasks_id in (:ids)", "employee_tasks")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createQuery("delete from Task t where t.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.clear();
+        return ids.size();
+    }
+
+    /**
+     * Sin las tablas afectadas, Hibernate vaciaría todas las regiones de la
+     * caché de segundo nivel tras cada sentencia nativa; con ellas solo
+     * invalida las consultas cacheadas sobre esas tablas (ver
+     * {@link TaskAssignmentService}).
+     */
+    private NativeQuery<?> nativeStatement(String sql, String table) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(table);
+    }
+
+    /**
+     * Al confirmar el bloque se quitan de la caché las tareas y las
+     * colecciones de tareas de los empleados, que pueden contener alguna de
+     * las archivadas. El resto de regiones no se tocan.
+     */
+    private void evictTasksAfterCommit() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evictEntityData(Task.class);
+                cache.evictCollectionData(EMPLOYEE_TASKS);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,51 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.metrics;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class HibernateStatisticsMetricsTests {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void entityLoadsArePublishedPerEntity() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        FunctionCounter loads = meterRegistry.get("hibernate.entity.loads")
+                .tag("entity", FullTimeEmployee.class.getName())
+                .functionCounter();
+        double before = loads.count();
+
+        employeeRepository.findById(1L);
+
+        assertThat(loads.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void cacheHitRatioAndBootHibernateMetricsArePublished() {
+        employeeRepository.findById(1L);
+        employeeRepository.findById(1L);
+
+        assertThat(meterRegistry.get("hibernate.second.level.cache.hit.ratio").gauge().value()).isGreaterThan(0);
+        assertThat(meterRegistry.find("hibernate.flushes").functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("hibernate.connections.obtained").functionCounter()).isNotNull();
+    }
+
+}
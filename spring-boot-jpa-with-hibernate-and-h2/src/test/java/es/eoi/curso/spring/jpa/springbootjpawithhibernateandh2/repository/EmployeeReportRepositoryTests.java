@@ -0,0 +1,80 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.PartTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeReportRepositoryTests {
+
+    @Autowired
+    EmployeeReportRepository employeeReportRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        insert(1000, FullTimeEmployee.TYPE, "Elche", 1000, null);
+        insert(1001, FullTimeEmployee.TYPE, "Elche", 2000, null);
+        insert(1002, PartTimeEmployee.TYPE, "Elche", null, 10.0);
+        insert(1003, PartTimeEmployee.TYPE, "Elche", null, 20.0);
+        insert(1004, FullTimeEmployee.TYPE, "Orihuela", 3000, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from employee where id >= 1000 and id < 2000");
+    }
+
+    @Test
+    void aggregatesAreGroupedByTypeCityAndState() {
+        List<EmployeeAggregate> elche = employeeReportRepository.aggregateByTypeCityAndState().stream()
+                .filter(aggregate -> "Elche".equals(aggregate.getCity()))
+                .collect(Collectors.toList());
+
+        assertThat(elche).hasSize(2);
+        EmployeeAggregate fullTime = elche.get(0);
+        assertThat(fullTime.getEmployeeType()).isEqualTo(FullTimeEmployee.TYPE);
+        assertThat(fullTime.getEmployees()).isEqualTo(2);
+        assertThat(fullTime.getTotalSalary()).isEqualTo(3000);
+        assertThat(fullTime.getAverageSalary()).isEqualTo(1500.0);
+        EmployeeAggregate partTime = elche.get(1);
+        assertThat(partTime.getEmployeeType()).isEqualTo(PartTimeEmployee.TYPE);
+        assertThat(partTime.getAverageHourlyWage()).isEqualTo(15.0);
+        assertThat(partTime.getTotalSalary()).isNull();
+    }
+
+    @Test
+    void aggregatesCanBeFilteredByType() {
+        assertThat(employeeReportRepository.aggregateByCityAndState(FullTimeEmployee.TYPE))
+                .extracting(EmployeeAggregate::getEmployeeType)
+                .containsOnly(FullTimeEmployee.TYPE);
+    }
+
+    @Test
+    void totalsPerEmployeeType() {
+        long importedSalaries = jdbcTemplate.queryForObject(
+                "select coalesce(sum(salary), 0) from employee where id < 1000", Long.class);
+
+        assertThat(employeeReportRepository.totalFullTimeSalary()).isEqualTo(importedSalaries + 6000);
+        assertThat(employeeReportRepository.averagePartTimeHourlyWage()).isNotNull();
+    }
+
+    private void insert(long id, String type, String city, Integer salary, Double hourlyWage) {
+        jdbcTemplate.update("insert into employee (employee_type, id, name, city, state, salary, hourly_wage)"
+                + " values (?, ?, ?, ?, 'Alicante', ?, ?)", type, id, "Empleado " + id, city, salary, hourlyWage);
+    }
+
+}
@@ -0,0 +1,144 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.dto.EmployeeSummary;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeRepositoryTests {
+
+    private static final long FIRST_ID = 1000L;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from employee_tasks where employees_id >= ?", FIRST_ID);
+        jdbcTemplate.update("delete from employee where id >= ?", FIRST_ID);
+        jdbcTemplate.update("delete from task where id >= ?", FIRST_ID);
+        // los cambios hechos con JDBC no pasan por la caché de segundo nivel
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void findAllWithTasksUsesOneStatementWhateverTheNumberOfEmployees() {
+        insertEmployees(5, 3);
+        assertThat(statementsToLoadTasks(employeeRepository::findAllWithTasks)).isEqualTo(1);
+
+        insertEmployees(40, 3);
+        assertThat(statementsToLoadTasks(employeeRepository::findAllWithTasks)).isEqualTo(1);
+    }
+
+    @Test
+    void findAllWithTasksReturnsEachEmployeeOnce() {
+        insertEmployees(4, 3);
+
+        List<Employee> employees = transactionTemplate.execute(status -> employeeRepository.findAllWithTasks());
+
+        assertThat(employees).extracting(Employee::getId).doesNotHaveDuplicates();
+        assertThat(employees).filteredOn(employee -> employee.getId() >= FIRST_ID)
+                .allSatisfy(employee -> assertThat(employee.getTasks()).hasSize(3));
+    }
+
+    @Test
+    void lazyTasksAreLoadedInBatches() {
+        insertEmployees(40, 3);
+
+        // una consulta para los empleados y otra para las tareas de todos ellos
+        assertThat(statementsToLoadTasks(employeeRepository::findAll)).isEqualTo(2);
+    }
+
+    @Test
+    void findByIdWithTasksLoadsTasksInTheSameStatement() {
+        insertEmployees(1, 3);
+
+        assertThat(statementsToLoadTasks(() -> List.of(employeeRepository.findByIdWithTasks(FIRST_ID).get())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void summariesAreNotManagedEntities() {
+        insertEmployees(3, 1);
+        statistics.clear();
+
+        List<EmployeeSummary> summaries = transactionTemplate.execute(status -> {
+            List<EmployeeSummary> result = employeeRepository.findSummaries(PageRequest.of(0, 10));
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            return result;
+        });
+
+        assertThat(summaries).filteredOn(summary -> summary.getId() >= FIRST_ID)
+                .extracting(EmployeeSummary::getName)
+                .containsExactly("Empleado 0", "Empleado 1", "Empleado 2");
+    }
+
+    @Test
+    void toStringPrintsTaskIdsOnlyWhenLoaded() {
+        // las subclases no imprimen las tareas, así que el empleado es de la clase base
+        jdbcTemplate.update("insert into employee (employee_type, id, name) values ('Employee', ?, 'Empleado')", FIRST_ID);
+        for (long taskId = FIRST_ID; taskId <= FIRST_ID + 1; taskId++) {
+            jdbcTemplate.update("insert into task (id, name, done) values (?, ?, false)", taskId, "Tarea " + taskId);
+            jdbcTemplate.update("insert into employee_tasks (employees_id, tasks_id) values (?, ?)", FIRST_ID, taskId);
+        }
+
+        // fuera de una transacción: las tareas perezosas ya no se pueden cargar
+        Employee lazy = employeeRepository.findById(FIRST_ID).get();
+        Employee withTasks = employeeRepository.findByIdWithTasks(FIRST_ID).get();
+
+        assertThat(lazy.toString()).contains("tasks=<not loaded>");
+        assertThat(withTasks.toString()).contains("tasks=[1000, 1001]").doesNotContain("Tarea");
+    }
+
+    private long statementsToLoadTasks(Supplier<List<Employee>> finder) {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> finder.get().forEach(employee -> employee.getTasks().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void insertEmployees(int count, int tasksPerEmployee) {
+        cleanUp();
+        for (int i = 0; i < count; i++) {
+            long employeeId = FIRST_ID + i;
+            jdbcTemplate.update("insert into employee (employee_type, id, name, salary) values ('Full Time', ?, ?, 1000)",
+                    employeeId, "Empleado " + i);
+            for (int t = 0; t < tasksPerEmployee; t++) {
+                long taskId = FIRST_ID + i * tasksPerEmployee + t;
+                jdbcTemplate.update("insert into task (id, name, done) values (?, ?, false)", taskId, "Tarea " + taskId);
+                jdbcTemplate.update("insert into employee_tasks (employees_id, tasks_id) values (?, ?)", employeeId, taskId);
+            }
+        }
+    }
+
+}
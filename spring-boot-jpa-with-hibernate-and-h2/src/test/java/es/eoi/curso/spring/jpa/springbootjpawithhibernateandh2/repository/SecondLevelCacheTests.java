@@ -0,0 +1,61 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Student;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired
+    StudentRepository studentRepository;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedFindByIdIsServedFromTheCache() {
+        employeeRepository.findById(1L);
+        employeeRepository.findById(1L);
+        employeeRepository.findById(1L);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cachedQueryIsNotRunAgainUntilTheTableChanges() {
+        studentRepository.findAll();
+        studentRepository.findAll();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        Student student = studentRepository.save(new Student("Lucia", "C7654321"));
+        studentRepository.findAll();
+
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(2);
+        studentRepository.deleteById(student.getId());
+    }
+
+}
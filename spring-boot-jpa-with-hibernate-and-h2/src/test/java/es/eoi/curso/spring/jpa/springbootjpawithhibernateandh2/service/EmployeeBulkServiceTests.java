@@ -0,0 +1,98 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.FullTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.PartTimeEmployee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeBulkServiceTests {
+
+    private static final int EMPLOYEES = 120;
+
+    @Autowired
+    EmployeeBulkService employeeBulkService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from employee_tasks where employees_id >= 100000");
+        jdbcTemplate.update("delete from employee where id >= 100000");
+        jdbcTemplate.update("delete from task where id >= 100000");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void employeesAndAssignmentsAreInsertedInBatches() {
+        Task review = new Task("Revisar", false);
+        Task deploy = new Task("Desplegar", false);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = i % 2 == 0 ? new FullTimeEmployee(1000 + i) : new PartTimeEmployee(10.0 + i);
+            employee.setName("Empleado " + i);
+            employee.setTasks(Set.of(review, deploy));
+            employees.add(employee);
+        }
+        BatchCounter batches = new BatchCounter();
+
+        int created = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).addEventListeners(batches);
+            return employeeBulkService.createAll(employees);
+        });
+
+        assertThat(created).isEqualTo(EMPLOYEES);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee where id >= 100000", Integer.class))
+                .isEqualTo(EMPLOYEES);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee_tasks where employees_id >= 100000",
+                Integer.class)).isEqualTo(EMPLOYEES * 2);
+        // se vacía el contexto con 50, 100 y 120 empleados. Cada vez, un lote de
+        // inserts por subclase (25 + 25, 25 + 25, 10 + 10 filas) y las asignaciones
+        // en lotes de 50 filas (100, 100, 40); la primera vez, además, las 2 tareas
+        assertThat(batches.executed).isEqualTo(1 + (2 + 2) + (2 + 2) + (2 + 1));
+    }
+
+    /**
+     * Cuenta las llamadas a {@code executeBatch} de la sesión.
+     */
+    static class BatchCounter extends BaseSessionEventListener {
+
+        int executed;
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            executed++;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "export.progress-interval=2")
+class EmployeeExportServiceTests {
+
+    @Autowired
+    EmployeeExportService employeeExportService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from employee_tasks where employees_id >= 1000");
+        jdbcTemplate.update("delete from employee where id >= 1000");
+        jdbcTemplate.update("delete from task where id >= 1000");
+    }
+
+    @Test
+    void writesOneLinePerEmployeeTask(@TempDir Path dir) throws IOException {
+        jdbcTemplate.update("insert into employee (employee_type, id, name, city, salary)"
+                + " values ('Full Time', 1000, 'Perez, Ana', 'Elche', 1000)");
+        jdbcTemplate.update("insert into task (id, name, done) values (1000, 'Revisar', true), (1001, 'Desplegar', false)");
+        jdbcTemplate.update("insert into employee_tasks (employees_id, tasks_id) values (1000, 1000), (1000, 1001)");
+        List<Long> progress = new ArrayList<>();
+        Path file = dir.resolve("employees.csv");
+
+        long rows = employeeExportService.exportTo(file, progress::add);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize((int) rows + 1);
+        assertThat(lines.get(0)).isEqualTo(EmployeeExportService.HEADER);
+        assertThat(lines).contains(
+                "1000,FullTimeEmployee,\"Perez, Ana\",Elche,,1000,Revisar,true",
+                "1000,FullTimeEmployee,\"Perez, Ana\",Elche,,1001,Desplegar,false");
+        assertThat(progress).last().isEqualTo(rows);
+        assertThat(progress).contains(2L);
+    }
+
+}
@@ -0,0 +1,142 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TaskAssignmentServiceTests {
+
+    private static final long EMPLOYEE_ID = 1000;
+
+    private static final int ASSIGNED_TASKS = 1000;
+
+    private static final long FREE_TASK_ID = 1000 + ASSIGNED_TASKS;
+
+    @Autowired
+    TaskAssignmentService taskAssignmentService;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @BeforeEach
+    void insertEmployeeWithTasks() {
+        jdbcTemplate.update("insert into employee (employee_type, id, name, salary) values ('Full Time', ?, 'Empleado', 1000)",
+                EMPLOYEE_ID);
+        List<Object[]> tasks = new ArrayList<>();
+        List<Object[]> assignments = new ArrayList<>();
+        for (long taskId = 1000; taskId <= FREE_TASK_ID + 1; taskId++) {
+            tasks.add(new Object[]{taskId, "Tarea " + taskId});
+            if (taskId < FREE_TASK_ID) {
+                assignments.add(new Object[]{EMPLOYEE_ID, taskId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into task (id, name, done) values (?, ?, false)", tasks);
+        jdbcTemplate.batchUpdate("insert into employee_tasks (employees_id, tasks_id) values (?, ?)", assignments);
+        // H2 cuenta las ejecuciones de cada sentencia, incluidas las de un lote
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.update("delete from employee_tasks where employees_id >= 1000");
+        jdbcTemplate.update("delete from employee where id >= 1000");
+        jdbcTemplate.update("delete from task where id >= 1000");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void assigningOneTaskIsOneInsert() {
+        assertThat(taskAssignmentService.assign(EMPLOYEE_ID, FREE_TASK_ID)).isTrue();
+
+        assertThat(executions("insert into employee_tasks")).isEqualTo(1);
+        assertThat(executions("delete from employee_tasks")).isZero();
+        assertThat(assignedTasks()).isEqualTo(ASSIGNED_TASKS + 1);
+        assertThat(taskAssignmentService.assign(EMPLOYEE_ID, FREE_TASK_ID)).isFalse();
+        assertThat(assignedTasks()).isEqualTo(ASSIGNED_TASKS + 1);
+    }
+
+    @Test
+    void unassigningOneTaskIsOneDelete() {
+        assertThat(taskAssignmentService.unassign(EMPLOYEE_ID, 1500)).isTrue();
+
+        assertThat(executions("delete from employee_tasks")).isEqualTo(1);
+        assertThat(executions("insert into employee_tasks")).isZero();
+        assertThat(assignedTasks()).isEqualTo(ASSIGNED_TASKS - 1);
+        assertThat(taskAssignmentService.unassign(EMPLOYEE_ID, 1500)).isFalse();
+    }
+
+    @Test
+    void bulkOperationsSkipExistingAndMissingAssignments() {
+        assertThat(taskAssignmentService.assignAll(EMPLOYEE_ID, List.of(1500L, FREE_TASK_ID, FREE_TASK_ID + 1, 99999L)))
+                .isEqualTo(2);
+        assertThat(taskAssignmentService.unassignAll(EMPLOYEE_ID, List.of(1000L, 1001L, FREE_TASK_ID, 99999L)))
+                .isEqualTo(3);
+
+        assertThat(assignedTasks()).isEqualTo(ASSIGNED_TASKS - 1);
+    }
+
+    @Test
+    void assignmentsEvictCachedTaskCollection() {
+        assertThat(employeeRepository.findByIdWithTasks(EMPLOYEE_ID).get().getTasks()).hasSize(ASSIGNED_TASKS);
+
+        taskAssignmentService.assign(EMPLOYEE_ID, FREE_TASK_ID);
+
+        int tasks = transactionTemplate.execute(status ->
+                entityManager.find(Employee.class, EMPLOYEE_ID).getTasks().size());
+        assertThat(tasks).isEqualTo(ASSIGNED_TASKS + 1);
+    }
+
+    @Test
+    void addingToLoadedTaskSetInsertsOnlyTheNewRow() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Employee employee = entityManager.find(Employee.class, EMPLOYEE_ID);
+            employee.getTasks().add(entityManager.getReference(Task.class, FREE_TASK_ID));
+        });
+
+        assertThat(executions("insert into employee_tasks")).isEqualTo(1);
+        assertThat(executions("delete from employee_tasks")).isZero();
+        assertThat(assignedTasks()).isEqualTo(ASSIGNED_TASKS + 1);
+    }
+
+    private int assignedTasks() {
+        return jdbcTemplate.queryForObject("select count(*) from employee_tasks where employees_id = ?",
+                Integer.class, EMPLOYEE_ID);
+    }
+
+    private int executions(String statement) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(execution_count), 0)"
+                        + " from information_schema.query_statistics where lower(sql_statement) like ?",
+                Integer.class, statement + "%");
+    }
+
+}
@@ -0,0 +1,149 @@
+package es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.service;
+
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Employee;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.domain.Task;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.EmployeeRepository;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.StudentRepository;
+import es.eoi.curso.spring.jpa.springbootjpawithhibernateandh2.repository.TaskRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "task.bulk.chunk-size=2")
+class TaskCompletionServiceTests {
+
+    @Autowired
+    TaskCompletionService taskCompletionService;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StudentRepository studentRepository;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from task_archive_employees where task_id >= 1000");
+        jdbcTemplate.update("delete from task_archive where id >= 1000");
+        jdbcTemplate.update("delete from employee_tasks where tasks_id >= 1000");
+        jdbcTemplate.update("delete from task where id >= 1000");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void completeAllUpdatesOnlyPendingTasks() {
+        insertTask(1000, false, null);
+        insertTask(1001, false, null);
+        insertTask(1002, false, null);
+        insertTask(1003, true, LocalDateTime.now().minusDays(1));
+        // deja la tarea en la caché de segundo nivel antes del update
+        assertThat(taskRepository.findById(1000L).get().getDone()).isFalse();
+
+        int completed = taskCompletionService.completeAll(List.of(1000L, 1001L, 1002L, 1003L));
+
+        assertThat(completed).isEqualTo(3);
+        Task task = taskRepository.findById(1000L).get();
+        assertThat(task.getDone()).isTrue();
+        assertThat(task.getCompletedAt()).isNotNull();
+    }
+
+    @Test
+    void archiveMovesOldCompletedTasksAndTheirAssignments() {
+        LocalDateTime now = LocalDateTime.now();
+        insertTask(1000, true, now.minusDays(40));
+        insertTask(1001, true, now.minusDays(35));
+        insertTask(1002, true, now.minusDays(31));
+        insertTask(1003, true, now.minusDays(1));
+        insertTask(1004, false, null);
+        // terminada antes de que se guardara la fecha de cierre
+        insertTask(1005, true, null);
+        jdbcTemplate.update("insert into employee_tasks (employees_id, tasks_id) values (1, 1000), (2, 1000), (1, 1003)");
+
+        int archived = taskCompletionService.archiveCompletedBefore(now.minusDays(30));
+
+        assertThat(archived).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("select id from task where id >= 1000 order by id", Long.class))
+                .containsExactly(1003L, 1004L);
+        assertThat(jdbcTemplate.queryForList("select id from task_archive order by id", Long.class))
+                .containsExactly(1000L, 1001L, 1002L, 1005L);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from task_archive_employees where task_id = 1000",
+                Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee_tasks where tasks_id >= 1000",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void markingATaskDoneRecordsWhenItWasCompleted() {
+        insertTask(1000, false, null);
+
+        Task task = taskRepository.findById(1000L).get();
+        task.setDone(true);
+        taskRepository.save(task);
+
+        assertThat(jdbcTemplate.queryForObject("select completed_at from task where id = 1000", LocalDateTime.class))
+                .isNotNull();
+        assertThat(new Task("Nueva", true).getCompletedAt()).isNotNull();
+        assertThat(new Task("Nueva", false).getCompletedAt()).isNull();
+    }
+
+    @Test
+    void archiveKeepsUnrelatedCacheRegions() {
+        LocalDateTime now = LocalDateTime.now();
+        insertTask(1000, true, now.minusDays(40));
+        jdbcTemplate.update("insert into employee_tasks (employees_id, tasks_id) values (1, 1000)");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // deja en la caché un estudiante, un empleado y sus tareas
+        studentRepository.findById(10001L);
+        assertThat(employeeTaskIds()).contains(1000L);
+
+        taskCompletionService.archiveCompletedBefore(now.minusDays(30));
+        statistics.clear();
+
+        assertThat(studentRepository.findById(10001L)).isPresent();
+        assertThat(employeeRepository.findById(1L)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        // la colección de tareas sí se ha quitado de la caché
+        assertThat(employeeTaskIds()).doesNotContain(1000L);
+    }
+
+    private List<Long> employeeTaskIds() {
+        return transactionTemplate.execute(status -> entityManager.find(Employee.class, 1L).getTasks().stream()
+                .map(Task::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private void insertTask(long id, boolean done, LocalDateTime completedAt) {
+        jdbcTemplate.update("insert into task (id, name, done, completed_at) values (?, ?, ?, ?)",
+                id, "Tarea " + id, done, completedAt);
+    }
+
+}
@@ -0,0 +1,148 @@
+package es.eoi.springboot.rest.example.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Rellena student, course y student_course con datos sintéticos para pruebas
+ * de carga. Con la misma semilla genera siempre los mismos datos. Las filas se
+ * insertan con JDBC en lotes de {@code generator.batch-size}, cada lote en su
+ * propia transacción, sin pasar por el contexto de persistencia.
+ * <p>
+ * Al arrancar genera {@code generator.students} estudiantes (ninguno por
+ * defecto); los perfiles {@code students-1m} y {@code students-10m} lo fijan a
+ * uno y diez millones. Después reinicia hibernate_sequence por encima del
+ * mayor id generado para que las altas por la API no choquen con ellos.
+ */
+@Component
+public class DataGenerator implements ApplicationRunner {
+
+	private static final String[] FIRST_NAMES = { "Jose", "Maria", "Antonio", "Carmen", "Manuel", "Ana", "Francisco",
+			"Isabel", "David", "Laura", "Javier", "Lucia", "Daniel", "Marta", "Carlos", "Elena" };
+
+	private static final String[] LAST_NAMES = { "Garcia", "Rodriguez", "Gonzalez", "Fernandez", "Lopez", "Martinez",
+			"Sanchez", "Perez", "Gomez", "Martin", "Jimenez", "Ruiz", "Hernandez", "Diaz", "Moreno", "Munoz" };
+
+	private static final String[] SUBJECTS = { "Programación", "Inglés", "Bases de datos", "Redes", "Sistemas",
+			"Matemáticas", "Diseño", "Seguridad" };
+
+	private static final String PASSPORT_LETTERS = "ABCDEFGHJKLMNPRSTVWXYZ";
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Value("${generator.students:0}")
+	long students;
+
+	@Value("${generator.courses:1000}")
+	int courses;
+
+	@Value("${generator.courses-per-student:3}")
+	int coursesPerStudent;
+
+	@Value("${generator.first-student-id:1000000}")
+	long firstStudentId;
+
+	@Value("${generator.first-course-id:100000}")
+	long firstCourseId;
+
+	@Value("${generator.seed:42}")
+	long seed;
+
+	@Value("${generator.batch-size:1000}")
+	int batchSize;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (students > 0) {
+			generate();
+		}
+	}
+
+	public void generate() {
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(seed);
+
+		List<Object[]> courseRows = new ArrayList<>(batchSize);
+		for (int i = 0; i < courses; i++) {
+			courseRows.add(new Object[] { firstCourseId + i,
+					SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + (i + 1), "Curso generado " + (i + 1) });
+			if (courseRows.size() == batchSize || i == courses - 1) {
+				insert("insert into course (id, name, description) values (?, ?, ?)", courseRows);
+			}
+		}
+
+		List<Object[]> studentRows = new ArrayList<>(batchSize);
+		List<Object[]> enrollmentRows = new ArrayList<>(batchSize * coursesPerStudent);
+		int perStudent = Math.min(coursesPerStudent, courses);
+		long[] chosen = new long[perStudent];
+		for (long i = 0; i < students; i++) {
+			long studentId = firstStudentId + i;
+			studentRows.add(new Object[] { studentId, name(random), passportNumber(random) });
+			for (int c = 0; c < perStudent; c++) {
+				chosen[c] = distinctCourse(random, chosen, c);
+				enrollmentRows.add(new Object[] { studentId, chosen[c] });
+			}
+			if (studentRows.size() == batchSize || i == students - 1) {
+				insert("insert into student (id, name, passport_number) values (?, ?, ?)", studentRows);
+				insert("insert into student_course (student_id, course_id) values (?, ?)", enrollmentRows);
+				long done = i + 1;
+				if (done % 1_000_000 == 0) {
+					logger.info("Generated {} of {} students", done, students);
+				}
+			}
+		}
+
+		long nextId = Math.max(firstStudentId + students, firstCourseId + courses);
+		jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + nextId);
+		long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		logger.info("Generated {} students, {} courses and {} enrollments in {} ms", students, courses,
+				students * perStudent, millis);
+	}
+
+	private void insert(String sql, List<Object[]> rows) {
+		transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(sql, rows));
+		rows.clear();
+	}
+
+	private long distinctCourse(SplittableRandom random, long[] chosen, int count) {
+		while (true) {
+			long courseId = firstCourseId + random.nextInt(courses);
+			boolean repeated = false;
+			for (int i = 0; i < count && !repeated; i++) {
+				repeated = chosen[i] == courseId;
+			}
+			if (!repeated) {
+				return courseId;
+			}
+		}
+	}
+
+	private static String name(SplittableRandom random) {
+		return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+	}
+
+	private static String passportNumber(SplittableRandom random) {
+		return PASSPORT_LETTERS.charAt(random.nextInt(PASSPORT_LETTERS.length()))
+				+ String.format("%07d", random.nextInt(10_000_000));
+	}
+
+}